@@ -0,0 +1,113 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.broadcast.PostChanges;
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.service.impl.PostServiceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic data sets shared by the benchmarks. Posts are spread over
+ * one user per ten posts, the same ratio as jsonplaceholder's /posts.
+ */
+final class BenchmarkData {
+
+    private static final String[] LOREM = ("sunt aut facere repellat provident occaecati excepturi optio reprehenderit "
+            + "quia et suscipit recusandae consequuntur expedita et cum rerum est autem sunt rem eveniet architecto "
+            + "qui est esse tempore vitae sequi sint nihil reprehenderit dolor beatae ea dolores neque").split(" ");
+
+    private BenchmarkData() {
+    }
+
+    static List<Post> posts(int size) {
+        List<Post> posts = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            posts.add(new Post((i - 1) / 10 + 1, i, "title " + (i % 1000), "body " + (i % 1000)));
+        }
+        return posts;
+    }
+
+    /**
+     * This method returns Posts whose title and body are drawn from a
+     * vocabulary of given size, skewed so that low ranked words are
+     * common and high ranked words are rare, as in natural text
+     *
+     * @return List<Post>
+     */
+    static List<Post> textPosts(int size, int vocabulary) {
+        Random random = new Random(42);
+        List<Post> posts = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            posts.add(new Post((i - 1) / 10 + 1, i, words(random, 4, vocabulary), words(random, 30, vocabulary)));
+        }
+        return posts;
+    }
+
+    /**
+     * This method returns Posts shaped like the ones served by
+     * jsonplaceholder: a short title and a body of four lines
+     *
+     * @return List<Post>
+     */
+    static List<Post> realisticPosts(int size) {
+        Random random = new Random(42);
+        List<Post> posts = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            String body = String.join("\n", lorem(random, 8), lorem(random, 8), lorem(random, 8), lorem(random, 6));
+            posts.add(new Post((i - 1) / 10 + 1, i, lorem(random, 6), body));
+        }
+        return posts;
+    }
+
+    private static String lorem(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(LOREM[random.nextInt(LOREM.length)]);
+        }
+        return text.toString();
+    }
+
+    static String word(int rank) {
+        return "w" + rank;
+    }
+
+    private static String words(Random random, int count, int vocabulary) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            text.append(i == 0 ? "" : " ").append(word((int) (skewed * vocabulary)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * This method returns a PostServiceImpl serving given snapshot
+     * without any upstream behind it
+     *
+     * @return PostServiceImpl
+     */
+    static PostServiceImpl postService(PostSnapshot snapshot) {
+        PostServiceImpl postService = new PostServiceImpl();
+        ReflectionTestUtils.setField(postService, "postSnapshotCache", new FixedSnapshotCache(snapshot));
+        ReflectionTestUtils.setField(postService, "postChanges", new PostChanges());
+        return postService;
+    }
+
+    private static final class FixedSnapshotCache extends PostSnapshotCache {
+        private final PostSnapshot snapshot;
+
+        private FixedSnapshotCache(PostSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public PostSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+}
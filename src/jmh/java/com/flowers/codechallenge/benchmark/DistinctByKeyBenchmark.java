@@ -0,0 +1,67 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.util.AppUtility;
+import com.flowers.codechallenge.util.IntCountMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AppUtility.distinctByKey, which boxes every key into a concurrent
+ * set, against a plain HashSet and the primitive IntCountMap used to
+ * index snapshots, all counting the distinct userIds of a list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DistinctByKeyBenchmark {
+
+    @Param({"100", "100000", "1000000"})
+    int size;
+
+    private List<Post> posts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = BenchmarkData.posts(size);
+    }
+
+    @Benchmark
+    public long distinctByKey() {
+        return posts.stream()
+                .filter(AppUtility.distinctByKey(Post::getUserId))
+                .count();
+    }
+
+    @Benchmark
+    public int hashSet() {
+        Set<Integer> userIds = new HashSet<>();
+        for (Post post : posts) {
+            userIds.add(post.getUserId());
+        }
+        return userIds.size();
+    }
+
+    @Benchmark
+    public int intCountMap() {
+        return IntCountMap.of(posts.size(), i -> posts.get(i).getUserId()).distinctCount();
+    }
+}
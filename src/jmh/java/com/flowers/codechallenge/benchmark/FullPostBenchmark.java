@@ -0,0 +1,124 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.client.PostDetailsFetcher;
+import com.flowers.codechallenge.client.PostsClient;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.model.Comment;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.model.User;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of GET /api/posts/{id}/full against the three calls in a row
+ * the frontend used to make for the Post, its author and its comments.
+ * The upstream is a local stub answering every path after the same
+ * latency, so the difference is the round trip saved by requesting the
+ * comments together with the Post.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Threads(4)
+public class FullPostBenchmark {
+
+    private static final String POST = "{\"userId\":1,\"id\":1,\"title\":\"sunt aut facere repellat provident occaecati\","
+            + "\"body\":\"quia et suscipit\\nsuscipit recusandae consequuntur expedita et cum\"}";
+
+    private static final String USER = "{\"id\":1,\"name\":\"Leanne Graham\",\"username\":\"Bret\",\"email\":\"Sincere@april.biz\","
+            + "\"phone\":\"1-770-736-8031 x56442\",\"website\":\"hildegard.org\"}";
+
+    @Param({"5", "50"})
+    long latencyMs;
+
+    private DisposableServer server;
+    private PostsClient postsClient;
+    private PostDetailsFetcher fetcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String comments = comments();
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/posts/{id}/comments", (request, response) -> delayed(response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(comments)).then()))
+                        .get("/posts/{id}", (request, response) -> delayed(response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(POST)).then()))
+                        .get("/users/{id}", (request, response) -> delayed(response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(USER)).then())))
+                .bindNow();
+
+        postsClient = new PostsClient();
+        UpstreamPolicies upstreamPolicies = new UpstreamPolicies();
+        ReflectionTestUtils.setField(upstreamPolicies, "environment", new StandardEnvironment());
+        ReflectionTestUtils.setField(postsClient, "webClient", WebClient.create("http://127.0.0.1:" + server.port()));
+        ReflectionTestUtils.setField(postsClient, "upstreamPolicies", upstreamPolicies);
+
+        fetcher = new PostDetailsFetcher();
+        ReflectionTestUtils.setField(fetcher, "postsClient", postsClient);
+        ReflectionTestUtils.setField(fetcher, "postTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(fetcher, "userTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(fetcher, "commentsTimeoutMs", 1000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> delayed(Mono<Void> response) {
+        return Mono.delay(Duration.ofMillis(latencyMs)).then(response);
+    }
+
+    private static String comments() {
+        StringBuilder comments = new StringBuilder("[");
+        for (int i = 1; i <= 5; i++) {
+            comments.append(i == 1 ? "" : ",")
+                    .append("{\"postId\":1,\"id\":").append(i)
+                    .append(",\"name\":\"id labore ex et quam laborum\",\"email\":\"Eliseo@gardner.biz\"")
+                    .append(",\"body\":\"laudantium enim quasi est quidem magnam voluptate ipsam eos\"}");
+        }
+        return comments.append("]").toString();
+    }
+
+    @Benchmark
+    public Object sequential() {
+        Post post = postsClient.fetchPost(1).block();
+        User user = postsClient.fetchUser(post.getUserId()).block();
+        List<Comment> comments = postsClient.fetchComments(1).block();
+        return new PostDetails(post, user, comments, null);
+    }
+
+    @Benchmark
+    public PostDetails fanOut() {
+        return fetcher.fetch(1).block();
+    }
+}
@@ -0,0 +1,114 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import com.flowers.codechallenge.store.ColumnarPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Footprint and access cost of the snapshot layouts: Post objects in
+ * ArrayPostStore against ColumnarPostStore on and off heap, holding
+ * realistic Posts. The memory retained by the store once the decoded
+ * Posts are gone is reported per million Posts as the heapBytesPerMillion
+ * and offHeapBytesPerMillion secondary results of footprint; read and update time
+ * includes materializing the Post for the columnar layouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PostStoreBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"array", "columnar", "columnarOffHeap"})
+    String layout;
+
+    private PostStore store;
+    private long heapBytes;
+    private long offHeapBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        long offHeapBefore = usedDirect();
+        store = build(BenchmarkData.realisticPosts(size));
+        heapBytes = usedHeap() - heapBefore;
+        offHeapBytes = usedDirect() - offHeapBefore;
+    }
+
+    private PostStore build(List<Post> posts) {
+        switch (layout) {
+            case "columnar":
+                return ColumnarPostStore.of(posts, false);
+            case "columnarOffHeap":
+                return ColumnarPostStore.of(posts, true);
+            default:
+                return new ArrayPostStore(posts);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    /**
+     * JMH zeroes the counters at the start of every iteration, so the
+     * footprint benchmark sets them on every call; its time is not
+     * meaningful.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerMillion;
+        public long offHeapBytesPerMillion;
+    }
+
+    @Benchmark
+    public void footprint(Footprint footprint) {
+        footprint.heapBytesPerMillion = heapBytes * 1_000_000L / size;
+        footprint.offHeapBytesPerMillion = offHeapBytes * 1_000_000L / size;
+    }
+
+    @Benchmark
+    public Post get() {
+        return store.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Post update() {
+        return store.update(ThreadLocalRandom.current().nextInt(size), "1800Flowers", "1800Flowers");
+    }
+}
@@ -0,0 +1,73 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.flowers.codechallenge.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization of a /posts payload shaped like
+ * jsonplaceholder's: the whole array into a List, as the buffered
+ * decode does, against reading it Post by Post from one parser, as
+ * the streaming decode does. The mapper is built with the same
+ * defaults Spring Boot applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PostsDeserializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private byte[] payload;
+    private ObjectReader listReader;
+    private ObjectReader postReader;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        payload = objectMapper.writeValueAsBytes(BenchmarkData.realisticPosts(size));
+        listReader = objectMapper.readerFor(new TypeReference<List<Post>>() { });
+        postReader = objectMapper.readerFor(Post.class);
+    }
+
+    @Benchmark
+    public List<Post> readList() throws IOException {
+        return listReader.readValue(payload);
+    }
+
+    @Benchmark
+    public void readStreaming(Blackhole blackhole) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                blackhole.consume(postReader.<Post>readValue(parser));
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowers.codechallenge.client.PostsClient;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.NettyOutbound;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read and decode the whole list of realistic Posts from a
+ * local stub upstream in one GET /posts against reading it in pages
+ * with _start and _limit, several at a time. The stub can cap the
+ * bandwidth of every connection, as a distant upstream limited by
+ * the TCP window would, which a single transfer cannot get past.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RangedFetchBenchmark {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @Param({"20000"})
+    int size;
+
+    @Param({"2000"})
+    int pageSize;
+
+    @Param({"1", "4", "8"})
+    int parallelism;
+
+    @Param({"0", "50"})
+    int connectionMegabytesPerSecond;
+
+    private DisposableServer server;
+    private PostsClient singleShot;
+    private PostsClient ranged;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Post> posts = BenchmarkData.realisticPosts(size);
+        byte[] all = objectMapper.writeValueAsBytes(posts);
+        Map<Integer, byte[]> pages = new HashMap<>();
+        for (int start = 0; start < size; start += pageSize) {
+            pages.put(start, objectMapper.writeValueAsBytes(posts.subList(start, Math.min(start + pageSize, size))));
+        }
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/posts", (request, response) -> {
+                    Map<String, List<String>> query = new QueryStringDecoder(request.uri()).parameters();
+                    if (!query.containsKey("_start")) {
+                        return send(response, all);
+                    }
+                    int start = Integer.parseInt(query.get("_start").get(0));
+                    return send(response.header("X-Total-Count", String.valueOf(size)), pages.getOrDefault(start, "[]".getBytes()));
+                }))
+                .bindNow();
+
+        singleShot = client(false);
+        ranged = client(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    private NettyOutbound send(HttpServerResponse response, byte[] payload) {
+        response.header("Content-Type", "application/json");
+        if (connectionMegabytesPerSecond == 0) {
+            return response.sendByteArray(Mono.just(payload));
+        }
+        List<byte[]> chunks = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += CHUNK_BYTES) {
+            chunks.add(Arrays.copyOfRange(payload, offset, Math.min(offset + CHUNK_BYTES, payload.length)));
+        }
+        long chunkMicros = CHUNK_BYTES * 1_000_000L / (connectionMegabytesPerSecond * 1024L * 1024L);
+        return response.send(Flux.fromIterable(chunks)
+                .delayElements(Duration.ofNanos(chunkMicros * 1000))
+                .map(Unpooled::wrappedBuffer));
+    }
+
+    private PostsClient client(boolean rangedFetch) {
+        PostsClient postsClient = new PostsClient();
+        UpstreamPolicies upstreamPolicies = new UpstreamPolicies();
+        ReflectionTestUtils.setField(upstreamPolicies, "environment", new StandardEnvironment());
+        ReflectionTestUtils.setField(postsClient, "webClient", WebClient.create("http://127.0.0.1:" + server.port()));
+        ReflectionTestUtils.setField(postsClient, "upstreamPolicies", upstreamPolicies);
+        ReflectionTestUtils.setField(postsClient, "streamingDecode", true);
+        ReflectionTestUtils.setField(postsClient, "rangedFetch", rangedFetch);
+        ReflectionTestUtils.setField(postsClient, "rangePageSize", pageSize);
+        ReflectionTestUtils.setField(postsClient, "rangeParallelism", parallelism);
+        return postsClient;
+    }
+
+    @Benchmark
+    public long singleShot() {
+        return singleShot.fetchPosts(null, null, Flux::count).block().getBody();
+    }
+
+    @Benchmark
+    public long ranged() {
+        return ranged.fetchPosts(null, null, Flux::count).block().getBody();
+    }
+}
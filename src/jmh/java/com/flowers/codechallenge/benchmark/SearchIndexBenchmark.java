@@ -0,0 +1,95 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.PostSearchIndex;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.search.Tokenizer;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the search index of a snapshot takes to build and
+ * how long AND and OR queries of a common and a rare word take on it,
+ * against the String.contains scan a search would otherwise run over
+ * every Post.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    private List<Post> posts;
+    private ArrayPostStore store;
+    private PostSearchIndex index;
+    private Set<String> commonAndRare;
+    private String common;
+    private String rare;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = BenchmarkData.textPosts(size, VOCABULARY);
+        store = new ArrayPostStore(posts);
+        index = new PostSearchIndex(store);
+        index.build();
+        common = BenchmarkData.word(1);
+        rare = BenchmarkData.word(VOCABULARY - 1);
+        commonAndRare = Tokenizer.terms(common + " " + rare);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public PostSearchIndex build() {
+        PostSearchIndex built = new PostSearchIndex(store);
+        built.build();
+        return built;
+    }
+
+    @Benchmark
+    public int[] indexAnd() {
+        return index.search(commonAndRare, SearchOperator.AND, LIMIT);
+    }
+
+    @Benchmark
+    public int[] indexOr() {
+        return index.search(commonAndRare, SearchOperator.OR, LIMIT);
+    }
+
+    @Benchmark
+    public int linearScanAnd() {
+        int found = 0;
+        for (Post post : posts) {
+            String text = post.getTitle() + " " + post.getBody();
+            if (text.contains(common) && text.contains(rare) && ++found == LIMIT) {
+                break;
+            }
+        }
+        return found;
+    }
+}
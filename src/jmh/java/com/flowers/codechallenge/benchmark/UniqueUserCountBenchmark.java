@@ -0,0 +1,69 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.service.impl.PostServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the per-request stream + distinct count that
+ * getUniqueUserCount used to run with the read of the index
+ * built once per snapshot. Run with -prof gc to see the
+ * allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UniqueUserCountBenchmark {
+
+    @Param({"100", "100000", "10000000"})
+    int size;
+
+    private List<Post> posts;
+    private PostServiceImpl postService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = BenchmarkData.posts(size);
+        postService = BenchmarkData.postService(new PostSnapshot(1L, posts, System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public long streamDistinct() {
+        return posts.stream()
+                .map(p -> p.getUserId())
+                .collect(Collectors.toList())
+                .stream()
+                .distinct()
+                .count();
+    }
+
+    @Benchmark
+    public Long indexedCount() {
+        return postService.getUniqueUserCount();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PostSnapshot buildSnapshotIndex() {
+        return new PostSnapshot(1L, posts, 0L);
+    }
+}
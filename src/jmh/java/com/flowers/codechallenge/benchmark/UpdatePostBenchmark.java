@@ -0,0 +1,94 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.service.impl.PostServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * PUT latency across list sizes: the stream + collect update that
+ * getUpdatedPost used to run against the positional store lookup
+ * and slot replace. Sample mode reports the latency percentiles;
+ * the store path stays flat as the list grows. The mixed group runs
+ * PUTs while other threads read the same snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UpdatePostBenchmark {
+
+    @Param({"100", "100000", "10000000"})
+    int size;
+
+    private final Post edit = new Post(0, 0, "1800Flowers", "1800Flowers");
+
+    private List<Post> posts;
+    private PostServiceImpl postService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = BenchmarkData.posts(size);
+        postService = BenchmarkData.postService(new PostSnapshot(1L, posts, System.currentTimeMillis()));
+    }
+
+    private long randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size) + 1L;
+    }
+
+    @Benchmark
+    public Post streamCollectUpdate() {
+        long index = randomIndex();
+        AtomicInteger counter = new AtomicInteger();
+
+        return posts.stream()
+                .map(post -> {
+                    counter.getAndIncrement();
+                    if (counter.get() == index) {
+                        post.setTitle(edit.getTitle());
+                        post.setBody(edit.getBody());
+                    }
+                    return post;
+                }).collect(Collectors.toList()).get((int) index - 1);
+    }
+
+    @Benchmark
+    public Post storeUpdate() {
+        return postService.getUpdatedPost(randomIndex(), edit);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Post mixedStoreUpdate() {
+        return postService.getUpdatedPost(randomIndex(), edit);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Post mixedRead() {
+        return postService.getPosts().get((int) randomIndex() - 1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.flowers.codechallenge.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flowers.codechallenge.model.Post;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a list of realistic Posts in each wire
+ * format the API negotiates: JSON, Smile and CBOR, with the mappers
+ * built as the converters build them. The size of the encoded list is
+ * reported as the payloadBytes secondary result of payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class WireFormatBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private List<Post> posts;
+    private byte[] encoded;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = mapper();
+        posts = BenchmarkData.realisticPosts(size);
+        writer = objectMapper.writerFor(new TypeReference<List<Post>>() { });
+        reader = objectMapper.readerFor(new TypeReference<List<Post>>() { });
+        encoded = writer.writeValueAsBytes(posts);
+    }
+
+    private ObjectMapper mapper() {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    /**
+     * JMH zeroes the counters at the start of every iteration, so the
+     * payload benchmark sets them on every call; its time is not
+     * meaningful.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long payloadBytes;
+    }
+
+    @Benchmark
+    public void payload(Payload payload) {
+        payload.payloadBytes = encoded.length;
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public List<Post> decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,106 @@
+package com.flowers.codechallenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Open-loop load generator. Requests are started on a fixed schedule
+ * whatever the response times are, and every latency is measured from
+ * the time its request was due rather than from when it was sent, so a
+ * stalled service shows up in the percentiles instead of slowing the
+ * load down (no coordinated omission). Requests that would exceed the
+ * in-flight limit are counted as dropped.
+ */
+final class LoadDriver {
+
+    private final int ratePerSecond;
+    private final int maxInFlight;
+
+    LoadDriver(int ratePerSecond, int maxInFlight) {
+        this.ratePerSecond = ratePerSecond;
+        this.maxInFlight = maxInFlight;
+    }
+
+    void run(List<Operation> operations, Duration duration) throws InterruptedException {
+        double totalWeight = operations.stream().mapToDouble(operation -> operation.weight).sum();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long due = start + i * 1_000_000_000L / ratePerSecond;
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(wait, 1_000_000L));
+            }
+
+            Operation operation = pick(operations, totalWeight);
+            if (!inFlight.tryAcquire()) {
+                operation.dropped.increment();
+                continue;
+            }
+            operation.call.apply(i)
+                    .doFinally(signal -> inFlight.release())
+                    .subscribe(status -> operation.record(due, status < 400),
+                            ex -> operation.record(due, false));
+        }
+
+        inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS);
+    }
+
+    private static Operation pick(List<Operation> operations, double totalWeight) {
+        double pick = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (Operation operation : operations) {
+            pick -= operation.weight;
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+
+    /**
+     * One kind of request of the load mix along with its results. The
+     * call gets the sequence number of the request and emits its status.
+     */
+    static final class Operation {
+        final String name;
+        final double weight;
+        final LongFunction<Mono<Integer>> call;
+        final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        Operation(String name, double weight, LongFunction<Mono<Integer>> call) {
+            this.name = name;
+            this.weight = weight;
+            this.call = call;
+        }
+
+        void record(long due, boolean success) {
+            latencies.recordValue(Math.min(System.nanoTime() - due, latencies.getHighestTrackableValue()));
+            (success ? succeeded : failed).increment();
+        }
+
+        void reset() {
+            latencies.reset();
+            succeeded.reset();
+            failed.reset();
+            dropped.reset();
+        }
+    }
+}
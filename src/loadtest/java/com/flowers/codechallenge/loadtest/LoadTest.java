@@ -0,0 +1,184 @@
+package com.flowers.codechallenge.loadtest;
+
+import com.flowers.codechallenge.CodeChallengeApplication;
+import com.flowers.codechallenge.util.VirtualThreads;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs the service against a local stub upstream and drives it at a fixed
+ * rate with a mix of GET /api/posts/uniqueUserCount and PUT /api/posts/{index},
+ * then reports throughput and latency percentiles per request. Everything
+ * binds to 127.0.0.1, so the test runs offline.
+ *
+ * Options are passed as key=value arguments:
+ * rate, durationSeconds, warmupSeconds, putRatio, maxInFlight, stubPosts,
+ * stubLatencyMs, stubErrorRate, profiles, threads, tomcatMaxThreads and
+ * waitForUpstream.
+ *
+ * threads=platform|virtual selects how the servlet mode handles requests;
+ * threads=both runs the scenario once per mode, each against a fresh
+ * service and stub, and prints the two reports side by side. Both need
+ * a JVM with virtual threads, and fail before starting otherwise. With
+ * waitForUpstream=true every request waits for a fetch from the stub,
+ * which is where the size of the Tomcat pool limits concurrency.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        String threads = options.getOrDefault("threads", "platform");
+        List<String> modes = threads.equals("both") ? Arrays.asList("platform", "virtual") : Collections.singletonList(threads);
+        if (modes.contains("virtual") && !VirtualThreads.isSupported()) {
+            // the service would log a warning and keep its pool, so "virtual" would measure platform threads
+            throw new IllegalStateException("threads=" + threads + " needs virtual threads, which Java "
+                    + Runtime.version().feature() + " does not provide; run the load test on Java 21 or later");
+        }
+
+        Map<String, List<LoadDriver.Operation>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            results.put(mode, run(options, mode));
+        }
+        if (results.size() > 1) {
+            int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "30"));
+            results.forEach((mode, operations) -> {
+                System.out.printf("%n%s threads", mode);
+                report(operations, durationSeconds);
+            });
+        }
+    }
+
+    private static List<LoadDriver.Operation> run(Map<String, String> options, String threads) throws Exception {
+        int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmupSeconds", "5"));
+        double putRatio = Double.parseDouble(options.getOrDefault("putRatio", "0.2"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "1000"));
+        int stubPosts = Integer.parseInt(options.getOrDefault("stubPosts", "100"));
+        long stubLatencyMs = Long.parseLong(options.getOrDefault("stubLatencyMs", "20"));
+        double stubErrorRate = Double.parseDouble(options.getOrDefault("stubErrorRate", "0"));
+        String profiles = options.getOrDefault("profiles", "");
+        boolean waitForUpstream = Boolean.parseBoolean(options.getOrDefault("waitForUpstream", "false"));
+        String tomcatMaxThreads = options.getOrDefault("tomcatMaxThreads", "200");
+
+        List<String> appArgs = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--server.address=127.0.0.1",
+                "--logging.level.root=WARN",
+                "--server.tomcat.threads.max=" + tomcatMaxThreads,
+                "--postsVirtualThreadsEnabled=" + threads.equals("virtual")));
+        if (waitForUpstream) {
+            // every request waits for the upstream, holding its thread for the stub latency
+            appArgs.add("--postsCacheRefreshIntervalMs=1");
+            appArgs.add("--postsCacheStaleWhileRevalidate=false");
+        }
+
+        try (StubUpstream upstream = new StubUpstream(stubPosts, stubLatencyMs, stubErrorRate)) {
+            appArgs.add("--postsServiceBaseUrl=" + upstream.baseUrl());
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CodeChallengeApplication.class)
+                    .profiles(profiles.isEmpty() ? new String[0] : profiles.split(","))
+                    .run(appArgs.toArray(new String[0]))) {
+
+                String port = context.getEnvironment().getProperty("local.server.port");
+                ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                        .maxConnections(maxInFlight)
+                        .pendingAcquireMaxCount(-1)
+                        .build();
+                HttpClient client = HttpClient.create(connections).baseUrl("http://127.0.0.1:" + port);
+
+                List<LoadDriver.Operation> operations = Arrays.asList(
+                        new LoadDriver.Operation("GET /api/posts/uniqueUserCount", 1 - putRatio, i -> uniqueUserCount(client)),
+                        new LoadDriver.Operation("PUT /api/posts/{index}", putRatio, i -> updatePost(client, i, stubPosts)));
+                LoadDriver driver = new LoadDriver(rate, maxInFlight);
+
+                System.out.printf("Service on port %s, upstream %s with %d posts, %d ms latency, %.2f%% errors, profiles [%s], "
+                                + "%s threads (Tomcat max %s), waitForUpstream %s%n",
+                        port, upstream.baseUrl(), stubPosts, stubLatencyMs, stubErrorRate * 100, profiles,
+                        threads, tomcatMaxThreads, waitForUpstream);
+                System.out.printf("Warming up for %d s at %d req/s%n", warmupSeconds, rate);
+                driver.run(operations, Duration.ofSeconds(warmupSeconds));
+                operations.forEach(LoadDriver.Operation::reset);
+
+                System.out.printf("Measuring for %d s at %d req/s%n", durationSeconds, rate);
+                driver.run(operations, Duration.ofSeconds(durationSeconds));
+                report(operations, durationSeconds);
+                connections.disposeLater().block();
+                return operations;
+            }
+        }
+    }
+
+    private static Mono<Integer> uniqueUserCount(HttpClient client) {
+        return client.get()
+                .uri("/api/posts/uniqueUserCount")
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private static Mono<Integer> updatePost(HttpClient client, long sequence, int posts) {
+        long index = ThreadLocalRandom.current().nextInt(posts) + 1L;
+        byte[] json = ("{\"userId\":0,\"id\":0,\"title\":\"1800Flowers " + sequence + "\",\"body\":\"1800Flowers\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return client.headers(headers -> headers
+                        .set(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .set(HttpHeaderNames.ACCEPT, "application/json"))
+                .put()
+                .uri("/api/posts/" + index)
+                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(json)))
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private static void report(List<LoadDriver.Operation> operations, int durationSeconds) {
+        System.out.printf("%n%-32s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "request", "ok", "failed", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (LoadDriver.Operation operation : operations) {
+            Histogram latencies = operation.latencies;
+            long completed = operation.succeeded.sum() + operation.failed.sum();
+            System.out.printf("%-32s %10d %8d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                    operation.name,
+                    operation.succeeded.sum(),
+                    operation.failed.sum(),
+                    operation.dropped.sum(),
+                    (double) completed / durationSeconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
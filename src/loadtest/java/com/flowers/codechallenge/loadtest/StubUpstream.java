@@ -0,0 +1,66 @@
+package com.flowers.codechallenge.loadtest;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for jsonplaceholder serving GET /posts on a local port, with
+ * a configurable number of Posts, added latency and share of 503s. The
+ * payload carries an ETag and conditional requests are answered with
+ * 304, as the real service does.
+ */
+final class StubUpstream implements AutoCloseable {
+
+    private static final String ETAG = "W/\"stub-posts\"";
+
+    private final DisposableServer server;
+
+    StubUpstream(int posts, long latencyMs, double errorRate) {
+        byte[] payload = payload(posts);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/posts", (request, response) -> Mono.delay(Duration.ofMillis(latencyMs))
+                        .then(Mono.defer(() -> {
+                            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                                return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then();
+                            }
+                            if (ETAG.equals(request.requestHeaders().get("If-None-Match"))) {
+                                return response.status(HttpResponseStatus.NOT_MODIFIED).header("ETag", ETAG).send().then();
+                            }
+                            return response.header("Content-Type", "application/json")
+                                    .header("ETag", ETAG)
+                                    .sendByteArray(Mono.just(payload))
+                                    .then();
+                        }))))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static byte[] payload(int posts) {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 1; i <= posts; i++) {
+            payload.append(i == 1 ? "" : ",")
+                    .append("{\"userId\":").append((i - 1) / 10 + 1)
+                    .append(",\"id\":").append(i)
+                    .append(",\"title\":\"sunt aut facere repellat provident occaecati ").append(i)
+                    .append("\",\"body\":\"quia et suscipit\\nsuscipit recusandae consequuntur expedita et cum\\n")
+                    .append("reprehenderit molestiae ut ut quas totam\\nnostrum rerum est autem sunt rem eveniet architecto\"}");
+        }
+        return payload.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * This class broadcasts PostChanges between the nodes running in one
+ * JVM, such as several application contexts started by a test. Nodes
+ * join a group by name and a change is delivered to the listeners of
+ * every other node of the group on the publishing thread.
+ */
+
+package com.flowers.codechallenge.broadcast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "postsBroadcastChannel", havingValue = "loopback")
+public class LoopbackPostChangeChannel implements PostChangeChannel {
+
+    private static final Map<String, List<LoopbackPostChangeChannel>> GROUPS = new ConcurrentHashMap<>();
+
+    @Value("${postsBroadcastLoopbackGroup:posts}")
+    String group;
+
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final List<Consumer<PostChange>> listeners = new CopyOnWriteArrayList<>();
+
+
+    @PostConstruct
+    public void join() {
+        GROUPS.computeIfAbsent(group, name -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @PreDestroy
+    public void leave() {
+        GROUPS.getOrDefault(group, new CopyOnWriteArrayList<>()).remove(this);
+    }
+
+    @Override
+    public long nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(PostChange change) {
+        for (LoopbackPostChangeChannel node : GROUPS.getOrDefault(group, new CopyOnWriteArrayList<>())) {
+            if (node != this) {
+                node.listeners.forEach(listener -> listener.accept(change));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PostChange> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,80 @@
+package com.flowers.codechallenge.broadcast;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One change broadcast between the nodes of the service: an edit of the
+ * Post at a 0-based position, along with the id that Post had so that
+ * an edit is never applied to a different Post, or a new snapshot
+ * fetched from the upstream. Every change names the node it came from.
+ */
+@Getter
+@AllArgsConstructor
+public class PostChange {
+
+    public enum Type {
+        EDIT,
+        REFRESH
+    }
+
+    private static final int MAGIC = 0x50434831;
+
+    private final Type type;
+    private final long origin;
+    private final int position;
+    private final int id;
+    private final String title;
+    private final String body;
+
+    public static PostChange edit(long origin, int position, int id, String title, String body) {
+        return new PostChange(Type.EDIT, origin, position, id, title, body);
+    }
+
+    public static PostChange refresh(long origin) {
+        return new PostChange(Type.REFRESH, origin, -1, 0, "", "");
+    }
+
+
+    byte[] encode() {
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + 1 + 8 + 4 + 4 + 4 + titleBytes.length + 4 + bodyBytes.length)
+                .putInt(MAGIC)
+                .put((byte) type.ordinal())
+                .putLong(origin)
+                .putInt(position)
+                .putInt(id)
+                .putInt(titleBytes.length).put(titleBytes)
+                .putInt(bodyBytes.length).put(bodyBytes)
+                .array();
+    }
+
+    /**
+     * This method decodes a change written by encode, returning null
+     * for anything else found on the channel
+     *
+     * @return PostChange
+     */
+    static PostChange decode(ByteBuffer in) {
+        try {
+            if (in.getInt() != MAGIC) {
+                return null;
+            }
+            Type type = Type.values()[in.get()];
+            long origin = in.getLong();
+            int position = in.getInt();
+            int id = in.getInt();
+            byte[] title = new byte[in.getInt()];
+            in.get(title);
+            byte[] body = new byte[in.getInt()];
+            in.get(body);
+            return new PostChange(type, origin, position, id, new String(title, StandardCharsets.UTF_8), new String(body, StandardCharsets.UTF_8));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.flowers.codechallenge.broadcast;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel broadcasting PostChanges between the nodes of the service.
+ * Delivery is best effort and unordered across nodes. A listener is
+ * only called with the changes of other nodes, never with those
+ * published by its own node.
+ *
+ * Implementations are selected with postsBroadcastChannel; without one
+ * every node only sees its own changes.
+ */
+public interface PostChangeChannel {
+
+    /**
+     * This method returns the id this node stamps on its changes
+     *
+     * @return origin
+     */
+    long nodeId();
+
+    void publish(PostChange change);
+
+    void subscribe(Consumer<PostChange> listener);
+}
@@ -0,0 +1,99 @@
+/**
+ * This class connects the service layer to the PostChangeChannel, when
+ * one is configured. Edits made on this node are published as they are
+ * applied; edits received from other nodes are applied to the current
+ * snapshot one Post at a time, and a new snapshot fetched by another
+ * node makes this one revalidate its own, which costs a 304 when the
+ * upstream did not change for it. A snapshot fetched by such a
+ * revalidation is not announced in turn.
+ *
+ * Remote edits are applied straight to the snapshot and are therefore
+ * never published again.
+ */
+
+package com.flowers.codechallenge.broadcast;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.store.VersionedPost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+@Component
+public class PostChanges {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostChanges.class);
+
+    @Autowired
+    PostSnapshotCache postSnapshotCache;
+
+    @Autowired(required = false)
+    PostChangeChannel changeChannel;
+
+
+    @PostConstruct
+    public void subscribe() {
+        if (changeChannel != null) {
+            changeChannel.subscribe(this::apply);
+        }
+    }
+
+
+    /**
+     * This method publishes the edit of the Post at given 1-based
+     * index and returns the updated Post
+     *
+     * @return Post
+     */
+    public Post edited(long index, Post updated) {
+        if (changeChannel != null) {
+            changeChannel.publish(PostChange.edit(changeChannel.nodeId(), (int) index - 1, updated.getId(), updated.getTitle(), updated.getBody()));
+        }
+        return updated;
+    }
+
+    public VersionedPost edited(long index, VersionedPost updated) {
+        edited(index, updated.getPost());
+        return updated;
+    }
+
+
+    /**
+     * This method publishes every successful edit of a batch and
+     * returns the results
+     *
+     * @return List<PostEditResult>
+     */
+    public List<PostEditResult> edited(List<PostEditResult> results) {
+        for (PostEditResult result : results) {
+            if (result.getStatusCode() == HttpStatus.OK.value()) {
+                edited(result.getIndex(), result.getPost());
+            }
+        }
+        return results;
+    }
+
+
+    void apply(PostChange change) {
+        if (change.getType() == PostChange.Type.REFRESH) {
+            postSnapshotCache.revalidate();
+            return;
+        }
+
+        PostSnapshot snapshot = postSnapshotCache.getCurrent();
+        if (snapshot == null) {
+            return;
+        }
+        if (!snapshot.applyEdit(change.getPosition(), change.getId(), change.getTitle(), change.getBody())) {
+            LOGGER.info("Ignoring remote edit of Post {} at position {} which this snapshot does not hold", change.getId(), change.getPosition());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * This class broadcasts PostChanges as UDP datagrams, one change per
+ * datagram, to a list of targets. A target may be a multicast group,
+ * which this node then joins, so that any number of nodes on a network,
+ * or on one box through the loopback interface, share a single address;
+ * or the unicast address of every peer where multicast is not routed.
+ *
+ * Datagrams may be lost, duplicated or reordered. Changes too large
+ * for one datagram are dropped with a warning.
+ */
+
+package com.flowers.codechallenge.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "postsBroadcastChannel", havingValue = "udp")
+public class UdpPostChangeChannel implements PostChangeChannel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UdpPostChangeChannel.class);
+
+    private static final int MAX_DATAGRAM_BYTES = 65507;
+
+    @Value("${postsBroadcastUdpBindAddress:0.0.0.0}")
+    String bindAddress;
+
+    @Value("${postsBroadcastUdpPort:4446}")
+    int port;
+
+    @Value("${postsBroadcastUdpTargets:239.255.44.46:4446}")
+    String targets;
+
+    @Value("${postsBroadcastUdpInterface:}")
+    String interfaceName;
+
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final List<Consumer<PostChange>> listeners = new CopyOnWriteArrayList<>();
+    private final List<InetSocketAddress> targetAddresses = new ArrayList<>();
+
+    private DatagramChannel channel;
+    private Thread receiver;
+
+
+    /**
+     * This method binds the channel, joins the multicast groups among
+     * the targets and starts receiving
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        for (String target : StringUtils.commaDelimitedListToStringArray(targets)) {
+            String trimmed = target.trim();
+            int colon = trimmed.lastIndexOf(':');
+            targetAddresses.add(new InetSocketAddress(trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1))));
+        }
+
+        channel = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(bindAddress, port));
+        for (InetSocketAddress target : targetAddresses) {
+            if (target.getAddress().isMulticastAddress()) {
+                NetworkInterface networkInterface = multicastInterface();
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+                channel.join(target.getAddress(), networkInterface);
+            }
+        }
+
+        receiver = new Thread(this::receive, "posts-broadcast-udp");
+        receiver.setDaemon(true);
+        receiver.start();
+        LOGGER.info("Broadcasting post changes from {} to {}", channel.getLocalAddress(), targetAddresses);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public int localPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    @Override
+    public long nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(PostChange change) {
+        byte[] datagram = change.encode();
+        if (datagram.length > MAX_DATAGRAM_BYTES) {
+            LOGGER.warn("Dropping {} of Post at position {}: {} bytes do not fit in a datagram", change.getType(), change.getPosition(), datagram.length);
+            return;
+        }
+        for (InetSocketAddress target : targetAddresses) {
+            try {
+                channel.send(ByteBuffer.wrap(datagram), target);
+            } catch (IOException ex) {
+                LOGGER.warn("Broadcast of post change to {} failed: {}", target, ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PostChange> listener) {
+        listeners.add(listener);
+    }
+
+
+    private void receive() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_BYTES);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+                PostChange change = PostChange.decode(buffer);
+                if (change != null && change.getOrigin() != nodeId) {
+                    listeners.forEach(listener -> listener.accept(change));
+                }
+            } catch (ClosedChannelException ex) {
+                return;
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.warn("Post change could not be received or applied: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The configured interface, otherwise the first one up and able to
+     * multicast, preferring a real interface over the loopback one
+     */
+    private NetworkInterface multicastInterface() throws SocketException {
+        if (StringUtils.hasText(interfaceName)) {
+            return NetworkInterface.getByName(interfaceName);
+        }
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        for (NetworkInterface candidate : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (candidate.isUp() && candidate.supportsMulticast() && !candidate.isLoopback()) {
+                return candidate;
+            }
+        }
+        return loopback;
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * View of the Posts decoded from one successful upstream fetch along with
+ * the number of Posts per userId, counted once when the snapshot is built,
+ * and the validators the upstream sent with them. Updates replace Posts in
+ * the store one position at a time and never change a userId, so the
+ * count stays valid for the life of the snapshot.
+ *
+ * Every Post carries the version of its slot, so an update can be made
+ * conditional on the version a client last read, sent as If-Match.
+ *
+ * The search index is built on first use and shared with the revalidated
+ * copies of the snapshot, since they share its store. Once it holds too
+ * many updates its successor is built in the background while it keeps
+ * serving queries.
+ */
+
+package com.flowers.codechallenge.cache;
+
+import com.flowers.codechallenge.exception.PostVersionConflictException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.PostSearchIndex;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.util.IntCountMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Getter
+public class PostSnapshot {
+    private final long version;
+    private final PostStore store;
+    private final long fetchedAt;
+    private final IntCountMap postsPerUser;
+    private final String etag;
+    private final String lastModified;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<PostSearchIndex> searchIndex;
+
+    public PostSnapshot(long version, List<Post> posts, long fetchedAt) {
+        this(version, new ArrayPostStore(posts), fetchedAt, IntCountMap.of(posts.size(), i -> posts.get(i).getUserId()), null, null);
+    }
+
+    public PostSnapshot(long version, PostStore store, long fetchedAt, IntCountMap postsPerUser, String etag, String lastModified) {
+        this(version, store, fetchedAt, postsPerUser, etag, lastModified, new AtomicReference<>());
+    }
+
+    private PostSnapshot(long version, PostStore store, long fetchedAt, IntCountMap postsPerUser, String etag, String lastModified,
+                         AtomicReference<PostSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+        this.version = version;
+        this.store = store;
+        this.fetchedAt = fetchedAt;
+        this.postsPerUser = postsPerUser;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * This method returns the same snapshot confirmed as current by
+     * the upstream at given time
+     *
+     * @return PostSnapshot
+     */
+    public PostSnapshot revalidated(long now) {
+        return new PostSnapshot(version, store, now, postsPerUser, etag, lastModified, searchIndex);
+    }
+
+    public List<Post> getPosts() {
+        return store.asList();
+    }
+
+    public long ageMillis(long now) {
+        return now - fetchedAt;
+    }
+
+    public long uniqueUserCount() {
+        return postsPerUser.distinctCount();
+    }
+
+    /**
+     * This method replaces the title and body of the Post at given
+     * 1-based index and returns the updated Post
+     *
+     * @return Post
+     */
+    public Post updatePost(long index, Post mPost) {
+        return updatePost(index, mPost, null).getPost();
+    }
+
+    /**
+     * This method replaces the title and body of the Post at given
+     * 1-based index, provided given If-Match header, when present,
+     * matches its current version, and returns the updated Post with
+     * its new version
+     *
+     * @return VersionedPost
+     */
+    public VersionedPost updatePost(long index, Post mPost, String ifMatch) {
+        int position = position(index);
+        VersionedPost updated;
+        if (ifMatch == null) {
+            updated = store.compareAndUpdate(position, VersionedPost.ANY_VERSION, mPost.getTitle(), mPost.getBody());
+        } else {
+            VersionedPost current = store.getVersioned(position);
+            updated = current.matches(ifMatch)
+                    ? store.compareAndUpdate(position, current.getVersion(), mPost.getTitle(), mPost.getBody())
+                    : null;
+            if (updated == null) {
+                VersionedPost latest = store.getVersioned(position);
+                throw new PostVersionConflictException("Post at index " + index + " has version " + latest.getEtag()
+                        + " which does not match If-Match " + ifMatch, latest.getEtag());
+            }
+        }
+
+        PostSearchIndex postSearchIndex = searchIndex.get();
+        if (postSearchIndex != null) {
+            postSearchIndex.update(position);
+        }
+        return updated;
+    }
+
+    /**
+     * This method replaces the title and body of the Post at given
+     * 0-based position when the Post held there has given id, as an
+     * edit received from another node is applied
+     *
+     * @return true when the edit was applied
+     */
+    public boolean applyEdit(int position, int id, String title, String body) {
+        if (position < 0 || position >= store.size() || store.get(position).getId() != id) {
+            return false;
+        }
+        store.update(position, title, body);
+        PostSearchIndex postSearchIndex = searchIndex.get();
+        if (postSearchIndex != null) {
+            postSearchIndex.update(position);
+        }
+        return true;
+    }
+
+    /**
+     * This method returns the Post at given 1-based index with its
+     * current version
+     *
+     * @return VersionedPost
+     */
+    public VersionedPost getVersionedPost(long index) {
+        return store.getVersioned(position(index));
+    }
+
+    private int position(long index) {
+        if (index < 1 || index > store.size()) {
+            throw new ArrayIndexOutOfBoundsException("Requested array index is out of range!!");
+        }
+        return (int) index - 1;
+    }
+
+    /**
+     * This method returns the search index of the snapshot, building
+     * it on first use. The index is published before it is built, so
+     * that no update made while it is built is missed. Once too many
+     * Posts were updated, a successor is built in the background and
+     * replaces the index when ready.
+     *
+     * @return PostSearchIndex
+     */
+    public PostSearchIndex searchIndex() {
+        PostSearchIndex index = searchIndex.get();
+        if (index == null || !index.isBuilt()) {
+            synchronized (searchIndex) {
+                index = searchIndex.get();
+                if (index == null) {
+                    index = new PostSearchIndex(store);
+                    searchIndex.set(index);
+                    index.build();
+                }
+            }
+        }
+        if (index.needsRebuild()) {
+            rebuildInBackground(index);
+        }
+        return index;
+    }
+
+    private void rebuildInBackground(PostSearchIndex index) {
+        PostSearchIndex next = index.startSuccessor();
+        if (next == null) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            next.build();
+            searchIndex.compareAndSet(index, next);
+        });
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * This class holds the last successfully decoded list of Posts
+ * in memory, refreshes it from the third party service on a
+ * fixed schedule and serves stale data while it revalidates.
+ *
+ * A snapshot younger than the refresh interval is served as is.
+ * An older one is served while a background refresh runs when
+ * stale-while-revalidate is enabled, otherwise the caller waits
+ * for the refresh. A snapshot older than the max staleness is
+ * never served once the upstream starts failing, unless the
+ * upstream is rejected outright by its circuit breaker or bulkhead
+ * and serving stale data then is enabled.
+ *
+ * Concurrent refreshes are coalesced so that all callers waiting
+ * for the upstream share one request and one decoded result.
+ *
+ * The snapshot and its userId index are built as the upstream array
+ * is decoded. Refreshes are conditional, so an upstream answering 304
+ * only extends the life of the snapshot already held.
+ *
+ * With postsStoreColumnar the snapshot is held in a ColumnarPostStore,
+ * built as the array is decoded, instead of as Post objects.
+ *
+ * When the overlay log is enabled, the edits it holds are merged over
+ * every new snapshot and further edits are recorded in it. No edit can
+ * be appended between the last merge and the publication of the
+ * snapshot, so none made during a refresh is lost.
+ *
+ * When a PostChangeChannel is configured, every new snapshot fetched
+ * from the upstream is announced to the other nodes, unless the fetch
+ * was started by an announcement of another node. An upstream without
+ * validators answers every revalidation with a new snapshot, so nodes
+ * announcing those would keep making each other refresh.
+ */
+
+package com.flowers.codechallenge.cache;
+
+import com.flowers.codechallenge.broadcast.PostChange;
+import com.flowers.codechallenge.broadcast.PostChangeChannel;
+import com.flowers.codechallenge.client.PostsClient;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.overlay.OverlayPostStore;
+import com.flowers.codechallenge.overlay.PostOverlayLog;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import com.flowers.codechallenge.store.ColumnarPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import com.flowers.codechallenge.util.IntCountMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+@Component
+public class PostSnapshotCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostSnapshotCache.class);
+
+    @Autowired
+    PostsClient postsClient;
+
+    @Autowired(required = false)
+    PostOverlayLog overlayLog;
+
+    @Autowired(required = false)
+    PostChangeChannel changeChannel;
+
+    @Value("${postsCacheRefreshIntervalMs:30000}")
+    long refreshIntervalMs;
+
+    @Value("${postsCacheStaleWhileRevalidate:true}")
+    boolean staleWhileRevalidate;
+
+    @Value("${postsCacheMaxStalenessMs:300000}")
+    long maxStalenessMs;
+
+    @Value("${postsCacheServeStaleWhenUnavailable:true}")
+    boolean serveStaleWhenUnavailable;
+
+    @Value("${postsStoreColumnar:false}")
+    boolean columnarStore;
+
+    @Value("${postsStoreOffHeap:false}")
+    boolean offHeapStore;
+
+    Clock clock = Clock.systemUTC();
+
+    private final AtomicReference<PostSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<CompletableFuture<PostSnapshot>> inFlight = new AtomicReference<>();
+
+
+    /**
+     * This method returns the snapshot to serve the current request
+     * from, fetching it from the upstream when nothing usable is held
+     *
+     * @return PostSnapshot
+     */
+    public PostSnapshot getSnapshot() {
+        PostSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.ageMillis(clock.millis()) < refreshIntervalMs) {
+            return snapshot;
+        }
+        return snapshot().block();
+    }
+
+
+    /**
+     * This method is the non-blocking counterpart of getSnapshot.
+     * The returned Mono completes once a usable snapshot is held
+     * without blocking the subscribing thread.
+     *
+     * @return Mono<PostSnapshot>
+     */
+    public Mono<PostSnapshot> snapshot() {
+        return Mono.defer(() -> {
+            PostSnapshot snapshot = current.get();
+            if (snapshot == null) {
+                return toMono(refreshAsync());
+            }
+
+            long age = snapshot.ageMillis(clock.millis());
+            if (age < refreshIntervalMs) {
+                return Mono.just(snapshot);
+            }
+
+            if (staleWhileRevalidate && age < maxStalenessMs) {
+                refreshAsync();
+                return Mono.just(snapshot);
+            }
+
+            return toMono(refreshAsync()).onErrorResume(RuntimeException.class, ex -> {
+                if (age >= maxStalenessMs && !(serveStaleWhenUnavailable && ex instanceof UpstreamUnavailableException)) {
+                    return Mono.error(ex);
+                }
+                LOGGER.warn("Refresh failed, serving posts snapshot {} aged {} ms: {}", snapshot.getVersion(), age, ex.getMessage());
+                return Mono.just(snapshot);
+            });
+        });
+    }
+
+
+    /**
+     * This method fetches the Posts from the upstream, publishes them
+     * as the current snapshot and returns it. A caller arriving while
+     * a fetch is already running waits for that fetch instead.
+     *
+     * @return PostSnapshot
+     */
+    public PostSnapshot refresh() {
+        try {
+            return refreshAsync().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+
+    /**
+     * This method returns the snapshot held right now, without
+     * fetching one, null before the first fetch
+     *
+     * @return PostSnapshot
+     */
+    public PostSnapshot getCurrent() {
+        return current.get();
+    }
+
+
+    /**
+     * This method starts a conditional refresh in the background,
+     * unless one is already running, and returns without waiting.
+     * It is called when another node announced a new snapshot, so the
+     * snapshot it fetches is not announced again.
+     */
+    public void revalidate() {
+        refreshAsync(false);
+    }
+
+
+    /**
+     * This method starts a fetch of the Posts from the upstream unless
+     * one is already running and returns the future of its snapshot
+     *
+     * @return CompletableFuture<PostSnapshot>
+     */
+    CompletableFuture<PostSnapshot> refreshAsync() {
+        return refreshAsync(true);
+    }
+
+
+    private CompletableFuture<PostSnapshot> refreshAsync(boolean announce) {
+        CompletableFuture<PostSnapshot> created = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<PostSnapshot> pending = inFlight.get();
+            if (pending != null) {
+                return pending;
+            }
+            if (inFlight.compareAndSet(null, created)) {
+                break;
+            }
+        }
+
+        Mono.defer(() -> fetchSnapshot(announce))
+                .subscribe(snapshot -> {
+                    inFlight.compareAndSet(created, null);
+                    created.complete(snapshot);
+                }, ex -> {
+                    LOGGER.warn("Refresh of posts snapshot failed: {}", ex.getMessage());
+                    inFlight.compareAndSet(created, null);
+                    created.completeExceptionally(ex);
+                });
+        return created;
+    }
+
+
+    @Scheduled(initialDelayString = "${postsCacheRefreshIntervalMs:30000}", fixedDelayString = "${postsCacheRefreshIntervalMs:30000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            LOGGER.debug("Scheduled refresh of posts snapshot failed", ex);
+        }
+    }
+
+
+    /**
+     * The future is shared by every caller waiting for the same fetch,
+     * so a cancelled subscriber must not cancel it for the others.
+     */
+    private static Mono<PostSnapshot> toMono(CompletableFuture<PostSnapshot> future) {
+        return Mono.create(sink -> future.whenComplete((snapshot, ex) -> {
+            if (ex == null) {
+                sink.success(snapshot);
+            } else {
+                sink.error(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+        }));
+    }
+
+
+    private Mono<PostSnapshot> fetchSnapshot(boolean announce) {
+        PostSnapshot previous = current.get();
+        String etag = previous == null ? null : previous.getEtag();
+        String lastModified = previous == null ? null : previous.getLastModified();
+
+        return postsClient.fetchPosts(etag, lastModified, posts -> posts.collect(
+                        () -> new SnapshotAccumulator(columnarStore, offHeapStore), SnapshotAccumulator::add))
+                .map(response -> {
+                    if (response.isNotModified() && previous != null) {
+                        return publish(previous.revalidated(clock.millis()));
+                    }
+                    SnapshotAccumulator accumulator = response.getBody();
+                    PostSnapshot snapshot = publishWithOverlay(accumulator.store(), store -> new PostSnapshot(versions.incrementAndGet(), store,
+                            clock.millis(), accumulator.postsPerUser, response.getEtag(), response.getLastModified()));
+                    if (announce && changeChannel != null) {
+                        changeChannel.publish(PostChange.refresh(changeChannel.nodeId()));
+                    }
+                    return snapshot;
+                });
+    }
+
+
+    /**
+     * The overlay is merged without blocking edits, which keep going to
+     * the snapshot still published. The edits appended meanwhile are
+     * then applied again while holding the lock of the overlay log, the
+     * one edits are appended under, and the snapshot is published and
+     * takes over from the previous one before the lock is released.
+     */
+    private PostSnapshot publishWithOverlay(PostStore store, Function<PostStore, PostSnapshot> snapshotOf) {
+        if (overlayLog == null) {
+            return publish(snapshotOf.apply(store));
+        }
+        long appliedSequence = overlayLog.lastSequence();
+        overlayLog.applyTo(store);
+        OverlayPostStore overlaid = new OverlayPostStore(store, overlayLog);
+        PostSnapshot snapshot = snapshotOf.apply(overlaid);
+
+        synchronized (overlayLog) {
+            overlayLog.applyTo(store, appliedSequence);
+            PostSnapshot previous = current.get();
+            if (previous != null && previous.getStore() instanceof OverlayPostStore) {
+                ((OverlayPostStore) previous.getStore()).supersede(overlaid);
+            }
+            return publish(snapshot);
+        }
+    }
+
+
+    private PostSnapshot publish(PostSnapshot snapshot) {
+        current.set(snapshot);
+        LOGGER.info("Published posts snapshot {} with {} posts", snapshot.getVersion(), snapshot.getStore().size());
+        return snapshot;
+    }
+
+
+    private static final class SnapshotAccumulator {
+        private final List<Post> posts;
+        private final ColumnarPostStore.Builder columns;
+        private final IntCountMap postsPerUser = new IntCountMap();
+
+        private SnapshotAccumulator(boolean columnar, boolean offHeap) {
+            this.posts = columnar ? null : new ArrayList<>();
+            this.columns = columnar ? ColumnarPostStore.builder(offHeap) : null;
+        }
+
+        private void add(Post post) {
+            if (columns != null) {
+                columns.add(post);
+            } else {
+                posts.add(post);
+            }
+            postsPerUser.add(post.getUserId());
+        }
+
+        private PostStore store() {
+            return columns != null ? columns.build() : new ArrayPostStore(posts);
+        }
+    }
+}
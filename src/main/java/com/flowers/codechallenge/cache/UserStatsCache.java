@@ -0,0 +1,122 @@
+/**
+ * This class computes the per-user aggregates of a snapshot once and
+ * serves the same result to every request made against it.
+ *
+ * The aggregates are derived from the posts per userId counted when the
+ * snapshot was built: a histogram of how many users have written a given
+ * number of Posts, counted in a primitive int map, and the most active
+ * users, kept in a bounded top-K heap. Updates never change a userId, so
+ * the result stays valid until the upstream sends a new array.
+ */
+
+package com.flowers.codechallenge.cache;
+
+import com.flowers.codechallenge.dto.PostCountBucket;
+import com.flowers.codechallenge.dto.UserPostCount;
+import com.flowers.codechallenge.dto.UserStats;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.util.IntCountMap;
+import com.flowers.codechallenge.util.IntTopKHeap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class UserStatsCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserStatsCache.class);
+
+    @Value("${postsTopUsersMax:100}")
+    int topUsersMax;
+
+    private final AtomicReference<Computed> computed = new AtomicReference<>();
+
+
+    /**
+     * This method returns the aggregates of given snapshot, computing
+     * them only when they were not computed for its index before
+     *
+     * @return UserStats
+     */
+    public UserStats get(PostSnapshot snapshot) {
+        IntCountMap postsPerUser = snapshot.getPostsPerUser();
+        Computed last = computed.get();
+        if (last != null && last.postsPerUser == postsPerUser) {
+            return last.stats;
+        }
+
+        UserStats stats = compute(postsPerUser, topUsersMax);
+        computed.set(new Computed(postsPerUser, stats));
+        LOGGER.info("Computed user stats of posts snapshot {} for {} users", snapshot.getVersion(), stats.getUserCount());
+        return stats;
+    }
+
+
+    /**
+     * This method returns the aggregates of given snapshot with the
+     * most active users cut down to given number, all of the kept
+     * ones when no number is given
+     *
+     * @return UserStats
+     */
+    public UserStats get(PostSnapshot snapshot, Integer top) {
+        if (top != null && top < 0) {
+            throw new InvalidRequestParameterException("Property 'top' should not be negative !!");
+        }
+
+        UserStats stats = get(snapshot);
+        if (top == null || top >= stats.getTopUsers().size()) {
+            return stats;
+        }
+        return stats.toBuilder()
+                .topUsers(stats.getTopUsers().subList(0, top))
+                .build();
+    }
+
+
+    static UserStats compute(IntCountMap postsPerUser, int k) {
+        IntCountMap usersPerPostCount = new IntCountMap();
+        IntTopKHeap topUsers = new IntTopKHeap(k);
+        postsPerUser.forEach((userId, count) -> {
+            usersPerPostCount.add(count);
+            topUsers.offer(userId, count);
+        });
+
+        int[] postCounts = new int[usersPerPostCount.distinctCount()];
+        int[] next = new int[1];
+        usersPerPostCount.forEach((postCount, users) -> postCounts[next[0]++] = postCount);
+        Arrays.sort(postCounts);
+        List<PostCountBucket> histogram = new ArrayList<>(postCounts.length);
+        for (int postCount : postCounts) {
+            histogram.add(new PostCountBucket(postCount, usersPerPostCount.get(postCount)));
+        }
+
+        List<UserPostCount> top = new ArrayList<>(topUsers.size());
+        topUsers.drainDescending((userId, count) -> top.add(new UserPostCount(userId, count)));
+
+        return UserStats.builder()
+                .userCount(postsPerUser.distinctCount())
+                .postCount(postsPerUser.totalCount())
+                .histogram(Collections.unmodifiableList(histogram))
+                .topUsers(Collections.unmodifiableList(top))
+                .build();
+    }
+
+
+    private static final class Computed {
+        private final IntCountMap postsPerUser;
+        private final UserStats stats;
+
+        private Computed(IntCountMap postsPerUser, UserStats stats) {
+            this.postsPerUser = postsPerUser;
+            this.stats = stats;
+        }
+    }
+}
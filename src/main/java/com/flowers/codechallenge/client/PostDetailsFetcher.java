@@ -0,0 +1,105 @@
+/**
+ * This class reads a Post joined with its author and its comments
+ * from the third party service. The comments are requested together
+ * with the Post, and the author as soon as the Post names it, so a
+ * full Post costs two upstream round trips in a row instead of three.
+ *
+ * Every leg has its own timeout. The Post is required, so a missing
+ * or late Post fails the whole read. The author and the comments are
+ * not: when either fails or is late the Post is returned without it
+ * and names it as missing.
+ */
+
+package com.flowers.codechallenge.client;
+
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.exception.PostNotFoundException;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import com.flowers.codechallenge.model.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+public class PostDetailsFetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostDetailsFetcher.class);
+
+    @Autowired
+    PostsClient postsClient;
+
+    @Value("${postsFullPostTimeoutMs:2000}")
+    long postTimeoutMs;
+
+    @Value("${postsFullUserTimeoutMs:1000}")
+    long userTimeoutMs;
+
+    @Value("${postsFullCommentsTimeoutMs:1000}")
+    long commentsTimeoutMs;
+
+
+    /**
+     * This method reads the Post with given id along with its author
+     * and its comments, leaving out those which could not be read
+     *
+     * @return Mono<PostDetails>
+     */
+    public Mono<PostDetails> fetch(int id) {
+        if (id < 1) {
+            return Mono.error(new InvalidRequestParameterException("Property 'id' should be greater than zero !!"));
+        }
+
+        Mono<PostDetails> postAndUser = post(id)
+                .flatMap(post -> optional(PostDetails.USER, id, postsClient.fetchUser(post.getUserId()), userTimeoutMs)
+                        .map(user -> PostDetails.builder().post(post).user(user.orElse(null)).build()));
+
+        return Mono.zip(postAndUser, optional(PostDetails.COMMENTS, id, postsClient.fetchComments(id), commentsTimeoutMs),
+                (details, comments) -> {
+                    details.setComments(comments.orElse(null));
+                    details.setMissing(missing(details));
+                    return details;
+                });
+    }
+
+
+    private Mono<Post> post(int id) {
+        return postsClient.fetchPost(id)
+                .timeout(Duration.ofMillis(postTimeoutMs), Mono.error(() ->
+                        new UpstreamUnavailableException("Post " + id + " was not returned within " + postTimeoutMs + " ms")))
+                .onErrorMap(WebClientResponseException.NotFound.class, ex -> new PostNotFoundException("Post " + id + " does not exist"))
+                .switchIfEmpty(Mono.error(() -> new PostNotFoundException("Post " + id + " does not exist")));
+    }
+
+
+    private static <T> Mono<Optional<T>> optional(String leg, int id, Mono<T> call, long timeoutMs) {
+        return call.timeout(Duration.ofMillis(timeoutMs))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(ex -> {
+                    LOGGER.warn("Returning post {} without its {}: {}", id, leg, ex.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+
+    private static List<String> missing(PostDetails details) {
+        List<String> missing = new ArrayList<>(2);
+        if (details.getUser() == null) {
+            missing.add(PostDetails.USER);
+        }
+        if (details.getComments() == null) {
+            missing.add(PostDetails.COMMENTS);
+        }
+        return missing.isEmpty() ? null : missing;
+    }
+}
@@ -0,0 +1,397 @@
+/**
+ * This class wraps the calls made to the third party posts
+ * service through the shared WebClient instance and returns
+ * the decoded response to the caller.
+ *
+ * Requests are conditional: the ETag and Last-Modified of the
+ * copy held by the caller are sent back as If-None-Match and
+ * If-Modified-Since so that an unchanged list is answered with
+ * a 304 and neither downloaded nor decoded again.
+ *
+ * Every fetch is timed by outcome, along with the time spent decoding
+ * the body and the size of the payload in Posts and, when announced,
+ * in bytes. Meters are registered in the global registry, to which
+ * Spring Boot adds the registries it configures.
+ *
+ * Fetches go through the UpstreamPolicy of their path, so they fail
+ * fast while the upstream is unhealthy or too many are in flight, and
+ * may be hedged.
+ *
+ * With postsClientAcceptSmile the upstream is asked for Smile first and
+ * JSON second, so an upstream supporting Smile sends the smaller binary
+ * payload while any other keeps answering in JSON.
+ *
+ * With postsUpstreamRangedFetch the list is read in pages of
+ * postsUpstreamRangePageSize Posts, requested with _start and _limit by up
+ * to postsUpstreamRangeParallelism at a time. Every page has its own
+ * connection, so pages are transferred and decoded on several event
+ * loops at once, and they are merged back in upstream order. The first
+ * page is read alone, and its X-Total-Count header tells how many pages
+ * follow. Without that header, pages are requested until one comes back
+ * short. Pages are not conditional. Instead, their ETags are combined
+ * into one validator, so a list whose pages are all unchanged is still
+ * reported as not modified.
+ *
+ * Single Posts, users and the comments of a Post are read uncached and
+ * unconditionally, each through the UpstreamPolicy of its path template.
+ */
+
+package com.flowers.codechallenge.client;
+
+import com.flowers.codechallenge.model.Comment;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.model.User;
+import com.flowers.codechallenge.resilience.Bulkhead;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import com.flowers.codechallenge.util.WireFormats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Component
+public class PostsClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostsClient.class);
+
+    static final String FETCH_TIMER = "posts.upstream.fetch";
+    static final String DECODE_TIMER = "posts.upstream.decode";
+    static final String PAYLOAD_POSTS = "posts.upstream.payload.posts";
+    static final String PAYLOAD_BYTES = "posts.upstream.payload.bytes";
+
+    private static final String POSTS_PATH = "/posts";
+    static final String POST_PATH = "/posts/{id}";
+    static final String USER_PATH = "/users/{id}";
+    static final String COMMENTS_PATH = "/posts/{id}/comments";
+
+    private static final String TOTAL_COUNT = "X-Total-Count";
+
+    private static final String ACCEPT_SMILE = WireFormats.APPLICATION_SMILE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    @Autowired
+    WebClient webClient;
+
+    @Autowired
+    UpstreamPolicies upstreamPolicies;
+
+    @Value("${postsUpstreamStreamingDecode:true}")
+    boolean streamingDecode;
+
+    @Value("${postsClientAcceptSmile:false}")
+    boolean acceptSmile;
+
+    @Value("${postsUpstreamRangedFetch:false}")
+    boolean rangedFetch;
+
+    @Value("${postsUpstreamRangePageSize:500}")
+    int rangePageSize;
+
+    @Value("${postsUpstreamRangeParallelism:4}")
+    int rangeParallelism;
+
+
+    /**
+     * This method stops the application from starting with a page size
+     * or parallelism that ranged fetches cannot work with. Every page
+     * takes a place in the bulkhead of /posts, so more pages at a time
+     * than it admits would have some rejected on every refresh.
+     */
+    @PostConstruct
+    public void validate() {
+        if (rangePageSize <= 0) {
+            throw new IllegalStateException("Property 'postsUpstreamRangePageSize' should be greater than zero but is " + rangePageSize);
+        }
+        if (rangeParallelism <= 0) {
+            throw new IllegalStateException("Property 'postsUpstreamRangeParallelism' should be greater than zero but is " + rangeParallelism);
+        }
+        Bulkhead bulkhead = rangedFetch ? upstreamPolicies.policy(POSTS_PATH).getBulkhead() : null;
+        if (bulkhead != null && rangeParallelism > bulkhead.maxConcurrentCalls()) {
+            throw new IllegalStateException("Property 'postsUpstreamRangeParallelism' should not exceed the "
+                    + bulkhead.maxConcurrentCalls() + " concurrent calls the bulkhead of " + POSTS_PATH + " admits but is " + rangeParallelism);
+        }
+    }
+
+
+    /**
+     * This method reads all Posts from the third party service unless
+     * they are unchanged since given validators were issued. The body
+     * is handed to given reader as it is decoded; with streaming decode
+     * the JSON array is decoded Post by Post, so neither the raw payload
+     * nor a complete list is buffered and the codec size limit applies
+     * per Post instead of per payload.
+     *
+     * @return Mono<UpstreamResponse<T>>
+     */
+    public <T> Mono<UpstreamResponse<T>> fetchPosts(String etag, String lastModified, Function<Flux<Post>, Mono<T>> reader) {
+        if (rangedFetch) {
+            return fetchPostsInRanges(etag, reader)
+                    .transform(PostsClient::timed);
+        }
+        LOGGER.info("Fetching all posts from upstream");
+
+        Mono<UpstreamResponse<T>> fetch = webClient.get()
+                .uri(POSTS_PATH)
+                .headers(headers -> {
+                    if (acceptSmile) {
+                        headers.set(HttpHeaders.ACCEPT, ACCEPT_SMILE);
+                    }
+                    if (etag != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+                    }
+                    if (lastModified != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                    }
+                })
+                .exchangeToMono(response -> read(response, reader));
+        return upstreamPolicies.policy(POSTS_PATH).apply(fetch)
+                .transform(PostsClient::timed);
+    }
+
+
+    /**
+     * This method reads the Post with given id from the third party service
+     *
+     * @return Mono<Post>
+     */
+    public Mono<Post> fetchPost(int id) {
+        return fetch(POST_PATH, id, response -> response.bodyToMono(Post.class));
+    }
+
+
+    /**
+     * This method reads the user with given id from the third party service
+     *
+     * @return Mono<User>
+     */
+    public Mono<User> fetchUser(int id) {
+        return fetch(USER_PATH, id, response -> response.bodyToMono(User.class));
+    }
+
+
+    /**
+     * This method reads the comments of the Post with given id from
+     * the third party service
+     *
+     * @return Mono<List<Comment>>
+     */
+    public Mono<List<Comment>> fetchComments(int postId) {
+        return fetch(COMMENTS_PATH, postId, response -> response.bodyToFlux(Comment.class).collectList());
+    }
+
+
+    private <T> Mono<T> fetch(String path, int id, Function<WebClient.ResponseSpec, Mono<T>> reader) {
+        LOGGER.info("Fetching {} with id {} from upstream", path, id);
+
+        WebClient.ResponseSpec response = webClient.get()
+                .uri(path, id)
+                .headers(headers -> {
+                    if (acceptSmile) {
+                        headers.set(HttpHeaders.ACCEPT, ACCEPT_SMILE);
+                    }
+                })
+                .retrieve();
+        return upstreamPolicies.policy(path).apply(reader.apply(response));
+    }
+
+
+    private <T> Mono<UpstreamResponse<T>> fetchPostsInRanges(String etag, Function<Flux<Post>, Mono<T>> reader) {
+        LOGGER.info("Fetching all posts from upstream in pages of {} with parallelism {}", rangePageSize, rangeParallelism);
+
+        return fetchPage(0).flatMap(first -> {
+            PageValidator validator = new PageValidator();
+            AtomicInteger decoded = new AtomicInteger();
+            Flux<Post> posts = Flux.concat(Mono.just(first), remainingPages(first))
+                    .doOnNext(validator::add)
+                    .concatMapIterable(page -> page.posts)
+                    .doOnNext(post -> decoded.incrementAndGet());
+            if (first.totalCount >= 0) {
+                posts = posts.concatWith(Mono.defer(() -> decoded.get() == first.totalCount ? Mono.empty()
+                        : Mono.error(new IllegalStateException("Upstream announced " + first.totalCount
+                        + " posts but returned " + decoded.get() + " in pages"))));
+            }
+
+            Timer.Sample decoding = Timer.start(Metrics.globalRegistry);
+            return reader.apply(posts)
+                    .doOnSuccess(body -> {
+                        decoding.stop(Timer.builder(DECODE_TIMER).register(Metrics.globalRegistry));
+                        DistributionSummary.builder(PAYLOAD_POSTS).register(Metrics.globalRegistry).record(decoded.get());
+                    })
+                    .map(body -> {
+                        String pagesEtag = validator.etag();
+                        if (pagesEtag != null && pagesEtag.equals(etag)) {
+                            LOGGER.info("Upstream posts not modified since {}", etag);
+                            return UpstreamResponse.notModified(pagesEtag, null);
+                        }
+                        return UpstreamResponse.modified(body, pagesEtag, null);
+                    });
+        });
+    }
+
+
+    /**
+     * Pages after the first are requested by up to rangeParallelism at
+     * a time and emitted in order as soon as all before them are.
+     */
+    private Flux<Page> remainingPages(Page first) {
+        if (first.posts.size() < rangePageSize) {
+            return Flux.empty();
+        }
+        if (first.totalCount >= 0) {
+            int pages = (int) ((first.totalCount + rangePageSize - 1) / rangePageSize);
+            return Flux.range(1, pages - 1)
+                    .flatMapSequential(page -> fetchPage((long) page * rangePageSize), rangeParallelism);
+        }
+        return Flux.range(1, Integer.MAX_VALUE - 1)
+                .flatMapSequential(page -> fetchPage((long) page * rangePageSize), rangeParallelism)
+                .takeUntil(page -> page.posts.size() < rangePageSize);
+    }
+
+
+    /**
+     * The request is sent from a worker thread rather than from the
+     * event loop which completed the previous page, so that the
+     * connection it opens is not colocated on that same event loop.
+     */
+    private Mono<Page> fetchPage(long start) {
+        Mono<Page> fetch = webClient.get()
+                .uri(uri -> uri.path(POSTS_PATH)
+                        .queryParam("_start", start)
+                        .queryParam("_limit", rangePageSize)
+                        .build())
+                .headers(headers -> {
+                    if (acceptSmile) {
+                        headers.set(HttpHeaders.ACCEPT, ACCEPT_SMILE);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    String totalCount = headers.getFirst(TOTAL_COUNT);
+                    return response.bodyToFlux(Post.class)
+                            .collectList()
+                            .map(posts -> new Page(posts, headers.getETag(), totalCount == null ? -1 : Long.parseLong(totalCount.trim())));
+                });
+        return upstreamPolicies.policy(POSTS_PATH).apply(fetch)
+                .subscribeOn(Schedulers.parallel());
+    }
+
+
+    private <T> Mono<UpstreamResponse<T>> read(ClientResponse response, Function<Flux<Post>, Mono<T>> reader) {
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+
+        if (response.statusCode() == HttpStatus.NOT_MODIFIED) {
+            LOGGER.info("Upstream posts not modified since {}", etag != null ? etag : lastModified);
+            return response.releaseBody()
+                    .thenReturn(UpstreamResponse.notModified(etag, lastModified));
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createException().flatMap(Mono::error);
+        }
+
+        response.headers().contentLength().ifPresent(bytes -> DistributionSummary.builder(PAYLOAD_BYTES)
+                .baseUnit("bytes")
+                .register(Metrics.globalRegistry)
+                .record(bytes));
+
+        Flux<Post> posts = streamingDecode
+                ? response.bodyToFlux(Post.class)
+                : response.bodyToMono(new ParameterizedTypeReference<List<Post>>() {}).flatMapIterable(Function.identity());
+        AtomicInteger decoded = new AtomicInteger();
+        Timer.Sample decoding = Timer.start(Metrics.globalRegistry);
+        return reader.apply(posts.doOnNext(post -> decoded.incrementAndGet()))
+                .doOnSuccess(body -> {
+                    decoding.stop(Timer.builder(DECODE_TIMER).register(Metrics.globalRegistry));
+                    DistributionSummary.builder(PAYLOAD_POSTS).register(Metrics.globalRegistry).record(decoded.get());
+                })
+                .map(body -> UpstreamResponse.modified(body, etag, lastModified));
+    }
+
+
+    private static final class Page {
+        private final List<Post> posts;
+        private final String etag;
+        private final long totalCount;
+
+        private Page(List<Post> posts, String etag, long totalCount) {
+            this.posts = posts;
+            this.etag = etag;
+            this.totalCount = totalCount;
+        }
+    }
+
+
+    /**
+     * Digests the ETags of all pages in order into one validator, which
+     * is null as soon as one page comes without an ETag.
+     */
+    private static final class PageValidator {
+        private final MessageDigest digest = sha256();
+        private boolean complete = true;
+
+        private void add(Page page) {
+            if (page.etag == null) {
+                complete = false;
+                return;
+            }
+            digest.update(page.etag.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        private String etag() {
+            return complete ? "W/\"pages-" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + "\"" : null;
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+
+    private static <T> Mono<UpstreamResponse<T>> timed(Mono<UpstreamResponse<T>> fetch) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return fetch.doOnSuccess(response -> record(start, response != null && response.isNotModified() ? "not_modified" : "modified"))
+                    .doOnError(ex -> record(start, "error"));
+        });
+    }
+
+    private static void record(long start, String outcome) {
+        Timer.builder(FETCH_TIMER)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
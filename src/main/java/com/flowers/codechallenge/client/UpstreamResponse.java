@@ -0,0 +1,25 @@
+package com.flowers.codechallenge.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of a conditional request to the upstream: either a freshly read
+ * body with its validators, or a marker that the held copy is still current.
+ */
+@Getter
+@AllArgsConstructor
+public class UpstreamResponse<T> {
+    private final boolean notModified;
+    private final T body;
+    private final String etag;
+    private final String lastModified;
+
+    public static <T> UpstreamResponse<T> modified(T body, String etag, String lastModified) {
+        return new UpstreamResponse<>(false, body, etag, lastModified);
+    }
+
+    public static <T> UpstreamResponse<T> notModified(String etag, String lastModified) {
+        return new UpstreamResponse<>(true, null, etag, lastModified);
+    }
+}
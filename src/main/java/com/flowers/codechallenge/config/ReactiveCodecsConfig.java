@@ -0,0 +1,27 @@
+/**
+ * This class registers the CBOR codecs with WebFlux when the
+ * application runs as a reactive web application. JSON and Smile
+ * are registered by default once Jackson supports them, CBOR is
+ * not, so without it requests and responses in application/cbor
+ * would be rejected in the reactive mode only.
+ */
+
+package com.flowers.codechallenge.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCodecsConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new Jackson2CborEncoder());
+        configurer.customCodecs().register(new Jackson2CborDecoder());
+    }
+}
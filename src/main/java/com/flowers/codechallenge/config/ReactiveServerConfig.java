@@ -0,0 +1,23 @@
+/**
+ * This class selects Reactor Netty as the embedded server when
+ * the application runs as a reactive web application. Tomcat
+ * stays on the classpath for the servlet mode and would be
+ * picked by Spring Boot otherwise.
+ */
+
+package com.flowers.codechallenge.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * This class moves request handling onto virtual threads when
+ * postsVirtualThreadsEnabled is set and the JVM supports them.
+ *
+ * Tomcat then starts a virtual thread per request instead of taking
+ * one from its bounded pool, so a request blocked on the upstream
+ * only holds a carrier thread while it runs. The same executor
+ * replaces the application task executor used for asynchronous
+ * MVC requests such as the NDJSON stream. The blocking service
+ * code is unchanged.
+ *
+ * On a JVM without virtual threads a warning is logged and the
+ * platform thread pools are kept.
+ */
+
+package com.flowers.codechallenge.config;
+
+import com.flowers.codechallenge.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "postsVirtualThreadsEnabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+
+    /**
+     * This bean hands every request accepted by Tomcat to a new
+     * virtual thread
+     *
+     * @return tomcatProtocolHandlerCustomizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (!VirtualThreads.isSupported()) {
+                LOGGER.warn("postsVirtualThreadsEnabled is set but Java {} has no virtual threads, keeping the Tomcat thread pool",
+                        Runtime.version().feature());
+                return;
+            }
+            LOGGER.info("Preparing Tomcat to handle requests on virtual threads");
+            protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+        };
+    }
+
+
+    /**
+     * This bean runs asynchronous MVC requests on virtual threads,
+     * replacing the pooled executor Spring Boot would configure
+     *
+     * @return applicationTaskExecutor
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @Conditional(VirtualThreadsSupported.class)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-vt-"));
+    }
+
+
+    static class VirtualThreadsSupported implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return VirtualThreads.isSupported();
+        }
+    }
+}
@@ -3,11 +3,18 @@
  * with given base URL, sets the Http Header details and
  * returns the instance.
  *
+ * The WebClient runs on a Reactor Netty HttpClient with a
+ * bounded connection pool, idle and lifetime eviction,
+ * connect and response timeouts, gzip response compression
+ * and optional HTTP/2, all driven from application properties.
+ * Pool and client metrics are published to Micrometer.
+ *
  * @author Nagendra Kumar Aluru
  */
 
 package com.flowers.codechallenge.config;
 
+import io.netty.channel.ChannelOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,15 +22,77 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebClientConfig.class);
 
+    private static final String POOL_NAME = "posts-service";
+
     @Value("${postsServiceBaseUrl}")
     private String postsServiceBaseUrl;
 
+    @Value("${postsClientMaxConnections:50}")
+    private int maxConnections;
+
+    @Value("${postsClientPendingAcquireMaxCount:1000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${postsClientPendingAcquireTimeoutMs:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${postsClientMaxIdleTimeMs:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${postsClientMaxLifeTimeMs:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${postsClientEvictInBackgroundMs:60000}")
+    private long evictInBackgroundMs;
+
+    @Value("${postsClientConnectTimeoutMs:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${postsClientResponseTimeoutMs:10000}")
+    private long responseTimeoutMs;
+
+    @Value("${postsClientCompression:true}")
+    private boolean compression;
+
+    @Value("${postsClientHttp2:false}")
+    private boolean http2;
+
+    @Value("${postsClientMetrics:true}")
+    private boolean metrics;
+
+
+    /**
+     * This bean creates the connection pool shared by all
+     * requests sent to the posts service
+     *
+     * @return connectionProvider
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider postsConnectionProvider() {
+        LOGGER.info("Preparing connection pool with maxConnections: {}, pendingAcquireMaxCount: {}", maxConnections, pendingAcquireMaxCount);
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .metrics(metrics)
+                .build();
+    }
+
 
     /**
      * This bean creates WebClient instance with given base URL
@@ -32,11 +101,40 @@ public class WebClientConfig {
      * @return webClient
      */
     @Bean
-    public WebClient httpClient() {
+    public WebClient httpClient(ConnectionProvider postsConnectionProvider) {
         LOGGER.info("Preparing httpClient with baseUrl: {}", postsServiceBaseUrl);
         String postsBaseUrl = postsServiceBaseUrl;
+
+        HttpClient httpClient = HttpClient.create(postsConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(compression)
+                .keepAlive(true);
+
+        if (http2) {
+            httpClient = postsBaseUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        if (metrics) {
+            httpClient = httpClient.metrics(true, WebClientConfig::uriTag);
+        }
+
         return WebClient.builder().baseUrl(postsBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
+
+
+    /**
+     * Query strings are dropped and numeric path segments collapsed
+     * so that the uri tag of the client metrics stays low cardinality
+     */
+    static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        return path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
 }
@@ -1,47 +1,169 @@
 /**
- * This controller class has two REST endpoints exposed to
+ * This controller class has REST endpoints exposed to
  * handle 'Get' request for counting unique userIds and also
- * handle 'Put' request for updating Post at given index
+ * handle 'Put' request for updating Post at given index and
+ * 'Post' request for updating many Posts in one batch.
+ * Posts are read page by page, or streamed as NDJSON.
+ * The bodies of the unique userId count and the user stats are
+ * cached serialized per snapshot version and carry an ETag.
+ * A single Post is read and updated with the ETag of its version;
+ * a PUT sent with If-Match fails with a 412 once the Post changed.
+ * A Post is also read from the third party service by its id joined
+ * with its author and comments.
  */
 
 package com.flowers.codechallenge.controller;
 
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
 import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
 import com.flowers.codechallenge.service.PostService;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.util.WireFormats;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/posts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PostController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PostController.class);
 
+    private static final int NDJSON_FLUSH_INTERVAL = 256;
+
     @Autowired
     PostService postService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final ResponseBodyCache responseBodyCache = new ResponseBodyCache();
+
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<PostPage> getPostPage(@RequestParam(value = "offset", required = false) Integer offset,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        PostPage postPage = postService.getPostPage(offset, limit, cursor);
+
+        return new ResponseEntity<>(postPage, HttpStatus.OK);
+    }
+
+
+    /**
+     * Posts are written one JSON document per line as they are read from
+     * the snapshot. The first line is flushed on its own so that the time
+     * to first byte does not depend on the number of Posts requested.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPosts(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                             @RequestParam(value = "limit", required = false) Integer limit) {
+        List<Post> posts = postService.getPosts(offset, limit);
 
-    @GetMapping(value = "/uniqueUserCount", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Long> getUniqueUserCount() {
-        Long uniqueUserCount = postService.getUniqueUserCount();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> writeNdjson(posts, out));
+    }
+
+
+    @GetMapping(value = "/uniqueUserCount", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getUniqueUserCount(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ResponseBodyCache.Entry uniqueUserCount = responseBodyCache.get("uniqueUserCount", postService.getSnapshotVersion(),
+                postService::getUniqueUserCount, objectMapper, accept);
 
-        return new ResponseEntity<>(uniqueUserCount, HttpStatus.OK);
+        return uniqueUserCount.toResponse(ifNoneMatch);
     }
 
 
-    @PutMapping(value = "/{index}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Post> getUpdatedPost(@PathVariable("index") Long index, @Valid @RequestBody Post post) {
-        Post updatedPost = postService.getUpdatedPost(index, post);
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<Post>> searchPosts(@RequestParam("q") String query,
+                                                  @RequestParam(value = "op", defaultValue = "AND") SearchOperator operator,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        List<Post> posts = postService.searchPosts(query, operator, limit);
+
+        return new ResponseEntity<>(posts, HttpStatus.OK);
+    }
+
+
+    @GetMapping(value = "/userStats", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getUserStats(@RequestParam(value = "top", required = false) Integer top,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ResponseBodyCache.Entry userStats = responseBodyCache.get("userStats?top=" + top, postService.getSnapshotVersion(),
+                () -> postService.getUserStats(top), objectMapper, accept);
+
+        return userStats.toResponse(ifNoneMatch);
+    }
+
+
+    @GetMapping(value = "/{index}", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Post> getPost(@PathVariable("index") Long index) {
+        VersionedPost post = postService.getPost(index);
+
+        return ResponseEntity.ok().eTag(post.getEtag()).body(post.getPost());
+    }
+
+
+    /**
+     * Unlike the other endpoints, the id is the id of the Post in the
+     * third party service, which is read from it on every request.
+     */
+    @GetMapping(value = "/{id}/full", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<PostDetails> getPostDetails(@PathVariable("id") Integer id) {
+        PostDetails postDetails = postService.getPostDetails(id);
+
+        return new ResponseEntity<>(postDetails, HttpStatus.OK);
+    }
+
+
+    @PutMapping(value = "/{index}", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Post> getUpdatedPost(@PathVariable("index") Long index, @Valid @RequestBody Post post,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionedPost updatedPost = postService.getUpdatedPost(index, post, ifMatch);
+
+        return ResponseEntity.ok().eTag(updatedPost.getEtag()).body(updatedPost.getPost());
+    }
+
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<PostEditResult>> getUpdatedPosts(@RequestBody List<PostEdit> edits) {
+        List<PostEditResult> results = postService.getUpdatedPosts(edits);
+
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
 
-        return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+    private void writeNdjson(List<Post> posts, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        for (int i = 0; i < posts.size(); i++) {
+            generator.writeObject(posts.get(i));
+            generator.writeRaw('\n');
+            if (i % NDJSON_FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
     }
 
 }
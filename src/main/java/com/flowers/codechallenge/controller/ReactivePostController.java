@@ -0,0 +1,120 @@
+/**
+ * This controller class exposes the same REST endpoints as
+ * PostController when the application runs as a reactive web
+ * application on Reactor Netty, returning reactive types so
+ * that no request thread waits for the third party service.
+ * Read endpoints cache their serialized bodies as PostController does.
+ */
+
+package com.flowers.codechallenge.controller;
+
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.service.ReactivePostService;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.util.WireFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/posts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePostController {
+
+    @Autowired
+    ReactivePostService postService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final ResponseBodyCache responseBodyCache = new ResponseBodyCache();
+
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<PostPage>> getPostPage(@RequestParam(value = "offset", required = false) Integer offset,
+                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                      @RequestParam(value = "cursor", required = false) String cursor) {
+        return postService.getPostPage(offset, limit, cursor)
+                .map(ResponseEntity::ok);
+    }
+
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Post> streamPosts(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return postService.getPosts(offset, limit);
+    }
+
+
+    @GetMapping(value = "/uniqueUserCount", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<byte[]>> getUniqueUserCount(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return postService.getSnapshotVersion()
+                .flatMap(version -> responseBodyCache.get("uniqueUserCount", version, Mono.defer(postService::getUniqueUserCount), objectMapper, accept))
+                .map(uniqueUserCount -> uniqueUserCount.toResponse(ifNoneMatch));
+    }
+
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<List<Post>>> searchPosts(@RequestParam("q") String query,
+                                                        @RequestParam(value = "op", defaultValue = "AND") SearchOperator operator,
+                                                        @RequestParam(value = "limit", required = false) Integer limit) {
+        return postService.searchPosts(query, operator, limit)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+
+    @GetMapping(value = "/userStats", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<byte[]>> getUserStats(@RequestParam(value = "top", required = false) Integer top,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return postService.getSnapshotVersion()
+                .flatMap(version -> responseBodyCache.get("userStats?top=" + top, version, Mono.defer(() -> postService.getUserStats(top)), objectMapper, accept))
+                .map(userStats -> userStats.toResponse(ifNoneMatch));
+    }
+
+
+    @GetMapping(value = "/{index}", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<Post>> getPost(@PathVariable("index") Long index) {
+        return postService.getPost(index)
+                .map(post -> ResponseEntity.ok().eTag(post.getEtag()).body(post.getPost()));
+    }
+
+
+    @GetMapping(value = "/{id}/full", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<PostDetails>> getPostDetails(@PathVariable("id") Integer id) {
+        return postService.getPostDetails(id)
+                .map(ResponseEntity::ok);
+    }
+
+
+    @PutMapping(value = "/{index}", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<Post>> getUpdatedPost(@PathVariable("index") Long index, @Valid @RequestBody Post post,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return postService.getUpdatedPost(index, post, ifMatch)
+                .map(updatedPost -> ResponseEntity.ok().eTag(updatedPost.getEtag()).body(updatedPost.getPost()));
+    }
+
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, WireFormats.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<List<PostEditResult>>> getUpdatedPosts(@RequestBody List<PostEdit> edits) {
+        return postService.getUpdatedPosts(edits)
+                .map(ResponseEntity::ok);
+    }
+
+}
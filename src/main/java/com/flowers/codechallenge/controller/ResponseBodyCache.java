@@ -0,0 +1,159 @@
+/**
+ * This class keeps the serialized body of read endpoints, along
+ * with an ETag derived from it, for the snapshot version it was
+ * computed from. While the version is unchanged the same bytes are
+ * written again without computing or serializing the value, and a
+ * client holding them is answered with a 304.
+ *
+ * Bodies are cached per media type, JSON, Smile or CBOR, as negotiated
+ * from the Accept header of the request, and responses vary by it.
+ *
+ * Values must depend on nothing but the snapshot and the cache key.
+ * The number of keys is bounded; when it is exceeded all entries are
+ * dropped and computed again on demand.
+ */
+
+package com.flowers.codechallenge.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowers.codechallenge.util.WireFormats;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+final class ResponseBodyCache {
+
+    private static final int MAX_KEYS = 64;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+
+    /**
+     * This method returns the cached entry of given key in the format
+     * negotiated from given Accept header when it was computed for given
+     * snapshot version, otherwise serializes the supplied value and
+     * caches it. JSON is written with given ObjectMapper.
+     *
+     * @return Entry
+     */
+    Entry get(String key, long version, Supplier<?> value, ObjectMapper objectMapper, String accept) {
+        MediaType mediaType = WireFormats.negotiate(accept);
+        String formatKey = key + " " + mediaType;
+        Entry entry = entries.get(formatKey);
+        if (entry != null && entry.version == version) {
+            return entry;
+        }
+        return put(formatKey, new Entry(version, mediaType, serialize(value.get(), mapperFor(mediaType, objectMapper))));
+    }
+
+
+    /**
+     * This method is the reactive counterpart of get, subscribing to
+     * given value only when no entry is cached for given version
+     *
+     * @return Mono<Entry>
+     */
+    Mono<Entry> get(String key, long version, Mono<?> value, ObjectMapper objectMapper, String accept) {
+        MediaType mediaType = WireFormats.negotiate(accept);
+        String formatKey = key + " " + mediaType;
+        Entry entry = entries.get(formatKey);
+        if (entry != null && entry.version == version) {
+            return Mono.just(entry);
+        }
+        return value.map(computed -> put(formatKey, new Entry(version, mediaType, serialize(computed, mapperFor(mediaType, objectMapper)))));
+    }
+
+
+    private Entry put(String key, Entry entry) {
+        if (entries.size() >= MAX_KEYS && !entries.containsKey(key)) {
+            entries.clear();
+        }
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private ObjectMapper mapperFor(MediaType mediaType, ObjectMapper objectMapper) {
+        if (mediaType.equals(WireFormats.APPLICATION_SMILE)) {
+            return smileMapper;
+        }
+        if (mediaType.equals(MediaType.APPLICATION_CBOR)) {
+            return cborMapper;
+        }
+        return objectMapper;
+    }
+
+    private static byte[] serialize(Object value, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+
+    @Getter
+    static final class Entry {
+        private final long version;
+        private final MediaType mediaType;
+        private final byte[] body;
+        private final String etag;
+
+        private Entry(long version, MediaType mediaType, byte[] body) {
+            this.version = version;
+            this.mediaType = mediaType;
+            this.body = body;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+
+        /**
+         * This method tells whether given If-None-Match header lists
+         * the ETag of this entry, weak or strong
+         *
+         * @return boolean
+         */
+        boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * This method returns the response for a request sent with given
+         * If-None-Match header, without a body when it matches
+         *
+         * @return ResponseEntity<byte[]>
+         */
+        ResponseEntity<byte[]> toResponse(String ifNoneMatch) {
+            if (matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(mediaType)
+                    .body(body);
+        }
+    }
+}
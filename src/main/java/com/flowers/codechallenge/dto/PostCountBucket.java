@@ -0,0 +1,15 @@
+package com.flowers.codechallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostCountBucket {
+    private int postCount;
+    private int userCount;
+}
@@ -0,0 +1,31 @@
+package com.flowers.codechallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flowers.codechallenge.model.Comment;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A Post joined with its author and its comments. Parts which the
+ * upstream failed to return in time are left out and named in missing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostDetails {
+    public static final String USER = "user";
+    public static final String COMMENTS = "comments";
+
+    private Post post;
+    private User user;
+    private List<Comment> comments;
+    private List<String> missing;
+}
@@ -0,0 +1,22 @@
+package com.flowers.codechallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostEdit {
+    @NotNull (message = "Property 'index' should not be null !!")
+    private Long index;
+    @NotBlank (message = "Property 'title' should not be null or blank !!")
+    private String title;
+    @NotBlank (message = "Property 'body' should not be null or blank !!")
+    private String body;
+}
@@ -0,0 +1,21 @@
+package com.flowers.codechallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flowers.codechallenge.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostEditResult {
+    private Long index;
+    private int statusCode;
+    private String status;
+    private Post post;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.flowers.codechallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flowers.codechallenge.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostPage {
+    private int offset;
+    private int limit;
+    private int total;
+    private String nextCursor;
+    private List<Post> posts;
+}
@@ -0,0 +1,19 @@
+package com.flowers.codechallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class UserStats {
+    private int userCount;
+    private long postCount;
+    private List<PostCountBucket> histogram;
+    private List<UserPostCount> topUsers;
+}
@@ -0,0 +1,13 @@
+package com.flowers.codechallenge.exception;
+
+/**
+ * Thrown instead of calling the upstream when its bulkhead is full.
+ * The call never reached the upstream, so a circuit breaker does not
+ * count it as a failure of the upstream.
+ */
+public class BulkheadFullException extends UpstreamUnavailableException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
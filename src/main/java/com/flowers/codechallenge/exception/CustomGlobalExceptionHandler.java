@@ -2,7 +2,8 @@
  * This is a centralized exception handler class to catch
  * unexpected exceptions across the application
  * and set proper error details then throws to
- * the consumer.
+ * the consumer. Every handled exception is counted
+ * by type and response status.
  *
  * @author Nagendra Kumar Aluru
  */
@@ -11,13 +12,18 @@ package com.flowers.codechallenge.exception;
 import java.util.Date;
 
 import com.flowers.codechallenge.dto.ErrorResponse;
+import com.flowers.codechallenge.util.WireFormats;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -28,7 +34,10 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomGlobalExceptionHandler {
+
+	static final String ERRORS_COUNTER = "posts.errors";
 	
 
 	@ExceptionHandler(Exception.class)
@@ -44,6 +53,8 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
 		return ResponseEntity
 				.status(HttpStatus.INTERNAL_SERVER_ERROR)
 				.body(errorResponse);
@@ -63,12 +74,78 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
+		return ResponseEntity
+				.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.body(errorResponse);
+	}
+
+
+	@ExceptionHandler(UpstreamUnavailableException.class)
+	protected ResponseEntity<ErrorResponse> handleUpstreamUnavailableException(UpstreamUnavailableException ex, WebRequest request) {
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+				.status(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+				.reason("External Service Unavailable or Not Reachable!!")
+				.error(ex.getMessage())
+				.requestedUri(request.getDescription(false))
+				.build();
+
+		countError(ex, errorResponse.getStatusCode());
+
 		return ResponseEntity
 				.status(HttpStatus.SERVICE_UNAVAILABLE)
 				.body(errorResponse);
 	}
 
 
+	@ExceptionHandler(PostVersionConflictException.class)
+	protected ResponseEntity<ErrorResponse> handlePostVersionConflictException(PostVersionConflictException ex, WebRequest request) {
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(HttpStatus.PRECONDITION_FAILED.value())
+				.status(HttpStatus.PRECONDITION_FAILED.getReasonPhrase())
+				.reason("Post was modified by another request!!")
+				.error(ex.getMessage())
+				.requestedUri(request.getDescription(false))
+				.build();
+
+		countError(ex, errorResponse.getStatusCode());
+
+		return ResponseEntity
+				.status(HttpStatus.PRECONDITION_FAILED)
+				.eTag(ex.getCurrentEtag())
+				.body(errorResponse);
+	}
+
+
+	@ExceptionHandler(PostNotFoundException.class)
+	protected ResponseEntity<ErrorResponse> handlePostNotFoundException(PostNotFoundException ex, WebRequest request) {
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(HttpStatus.NOT_FOUND.value())
+				.status(HttpStatus.NOT_FOUND.getReasonPhrase())
+				.reason(ex.getMessage())
+				.error(ex.getMessage())
+				.requestedUri(request.getDescription(false))
+				.build();
+
+		countError(ex, errorResponse.getStatusCode());
+
+		return ResponseEntity
+				.status(HttpStatus.NOT_FOUND)
+				.body(errorResponse);
+	}
+
+
 	@ExceptionHandler(ArrayIndexOutOfBoundsException.class)
 	protected ResponseEntity<ErrorResponse> handleArrayIndexOutOfBoundException(ArrayIndexOutOfBoundsException ex, WebRequest request) {
 
@@ -82,6 +159,29 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
+		return ResponseEntity
+				.status(HttpStatus.BAD_REQUEST)
+				.body(errorResponse);
+	}
+
+
+	@ExceptionHandler(InvalidRequestParameterException.class)
+	protected ResponseEntity<ErrorResponse> handleInvalidRequestParameterException(InvalidRequestParameterException ex, WebRequest request) {
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(HttpStatus.BAD_REQUEST.value())
+				.status(HttpStatus.BAD_REQUEST.getReasonPhrase())
+				.reason(ex.getMessage())
+				.error(ex.getMessage())
+				.requestedUri(request.getDescription(false))
+				.build();
+
+		countError(ex, errorResponse.getStatusCode());
+
 		return ResponseEntity
 				.status(HttpStatus.BAD_REQUEST)
 				.body(errorResponse);
@@ -101,6 +201,8 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 		
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.BAD_REQUEST)
         		.body(errorResponse);
@@ -119,12 +221,35 @@ public class CustomGlobalExceptionHandler {
 				.error(ex.getMessage())
 				.requestedUri(request.getDescription(false))
 				.build();
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.BAD_REQUEST)
         		.body(errorResponse);
 	}
 	
 	
+	@ExceptionHandler({MissingServletRequestParameterException.class})
+	public ResponseEntity<ErrorResponse> handleMissingServletRequestParameterException(MissingServletRequestParameterException ex, WebRequest request) {
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(HttpStatus.BAD_REQUEST.value())
+				.status(HttpStatus.BAD_REQUEST.getReasonPhrase())
+				.reason("Request parameter '" + ex.getParameterName() + "' is missing!!")
+				.error(ex.getMessage())
+				.requestedUri(request.getDescription(false))
+				.build();
+
+		countError(ex, errorResponse.getStatusCode());
+
+        return ResponseEntity
+        		.status(HttpStatus.BAD_REQUEST)
+        		.body(errorResponse);
+	}
+
+
 	@ExceptionHandler({HttpRequestMethodNotSupportedException.class})
 	public ResponseEntity<ErrorResponse> handleHttpRequestMethodNotSupported(HttpRequestMethodNotSupportedException ex, WebRequest request) {
 
@@ -138,6 +263,8 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.METHOD_NOT_ALLOWED)
         		.body(errorResponse);
@@ -157,6 +284,8 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.BAD_REQUEST)
         		.body(errorResponse);
@@ -168,7 +297,7 @@ public class CustomGlobalExceptionHandler {
 
 		StringBuilder builder = new StringBuilder();
 		builder.append(ex.getContentType());
-		builder.append(" media type is not supported. Supported media types are application/json");
+		builder.append(" media type is not supported. Supported media types are application/json, " + WireFormats.APPLICATION_SMILE_VALUE + ", " + MediaType.APPLICATION_CBOR_VALUE);
 
 		ErrorResponse errorResponse = ErrorResponse
 				.builder()
@@ -180,6 +309,8 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
         		.body(errorResponse);
@@ -199,8 +330,18 @@ public class CustomGlobalExceptionHandler {
 				.requestedUri(request.getDescription(false))
 				.build();
 
+		countError(ex, errorResponse.getStatusCode());
+
         return ResponseEntity
         		.status(HttpStatus.NOT_ACCEPTABLE)
         		.body(errorResponse);
 	}
+
+
+	static void countError(Exception ex, int statusCode) {
+		Metrics.counter(ERRORS_COUNTER,
+				"exception", ex.getClass().getSimpleName(),
+				"status", String.valueOf(statusCode))
+				.increment();
+	}
 }
@@ -0,0 +1,13 @@
+package com.flowers.codechallenge.exception;
+
+/**
+ * Thrown when a request parameter fails validation, such as a negative
+ * offset or a cursor of an earlier snapshot. Its message is meant for
+ * the client and is returned with a 400.
+ */
+public class InvalidRequestParameterException extends RuntimeException {
+
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.flowers.codechallenge.exception;
+
+/**
+ * Thrown when the upstream does not know the Post with the requested id.
+ */
+public class PostNotFoundException extends RuntimeException {
+
+    public PostNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.flowers.codechallenge.exception;
+
+/**
+ * Thrown when a conditional update names a version of the Post which
+ * is no longer current, because another update replaced it first.
+ * Carries the ETag of the current version.
+ */
+public class PostVersionConflictException extends RuntimeException {
+
+    private final String currentEtag;
+
+    public PostVersionConflictException(String message, String currentEtag) {
+        super(message);
+        this.currentEtag = currentEtag;
+    }
+
+    public String getCurrentEtag() {
+        return currentEtag;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * This is the centralized exception handler used when the
+ * application runs as a reactive web application. It maps
+ * the WebFlux counterparts of the exceptions handled by
+ * CustomGlobalExceptionHandler to the same error details
+ * and counts them in the same meter.
+ */
+package com.flowers.codechallenge.exception;
+
+import java.util.Date;
+
+import com.flowers.codechallenge.dto.ErrorResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+
+
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+
+
+	@ExceptionHandler(Exception.class)
+	protected ResponseEntity<ErrorResponse> handleException(Exception ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error!!", ex, request);
+	}
+
+
+	@ExceptionHandler(WebClientResponseException.class)
+	protected ResponseEntity<ErrorResponse> handleWebClientResponseException(WebClientResponseException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "External Service Unavailable or Not Reachable!!", ex, request);
+	}
+
+
+	@ExceptionHandler(UpstreamUnavailableException.class)
+	protected ResponseEntity<ErrorResponse> handleUpstreamUnavailableException(UpstreamUnavailableException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "External Service Unavailable or Not Reachable!!", ex, request);
+	}
+
+
+	@ExceptionHandler(PostVersionConflictException.class)
+	protected ResponseEntity<ErrorResponse> handlePostVersionConflictException(PostVersionConflictException ex, ServerHttpRequest request) {
+
+		ResponseEntity<ErrorResponse> response = errorResponse(HttpStatus.PRECONDITION_FAILED, "Post was modified by another request!!", ex, request);
+		return ResponseEntity
+				.status(response.getStatusCode())
+				.eTag(ex.getCurrentEtag())
+				.body(response.getBody());
+	}
+
+
+	@ExceptionHandler(PostNotFoundException.class)
+	protected ResponseEntity<ErrorResponse> handlePostNotFoundException(PostNotFoundException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), ex, request);
+	}
+
+
+	@ExceptionHandler(ArrayIndexOutOfBoundsException.class)
+	protected ResponseEntity<ErrorResponse> handleArrayIndexOutOfBoundException(ArrayIndexOutOfBoundsException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), ex, request);
+	}
+
+
+	@ExceptionHandler(InvalidRequestParameterException.class)
+	protected ResponseEntity<ErrorResponse> handleInvalidRequestParameterException(InvalidRequestParameterException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), ex, request);
+	}
+
+
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<ErrorResponse> handleWebExchangeBindException(WebExchangeBindException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.BAD_REQUEST, ex.getBindingResult().getFieldError().getDefaultMessage(), ex, request);
+	}
+
+
+	@ExceptionHandler(ServerWebInputException.class)
+	public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException ex, ServerHttpRequest request) {
+
+		return errorResponse(HttpStatus.BAD_REQUEST, "Request having issue. Please check!!", ex, request);
+	}
+
+
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException ex, ServerHttpRequest request) {
+
+		return errorResponse(ex.getStatus(), ex.getReason(), ex, request);
+	}
+
+
+	private ResponseEntity<ErrorResponse> errorResponse(HttpStatus status, String reason, Exception ex, ServerHttpRequest request) {
+
+		CustomGlobalExceptionHandler.countError(ex, status.value());
+
+		ErrorResponse errorResponse = ErrorResponse
+				.builder()
+				.timestamp(new Date())
+				.statusCode(status.value())
+				.status(status.getReasonPhrase())
+				.reason(reason)
+				.error(ex.getMessage())
+				.requestedUri("uri=" + request.getPath().value())
+				.build();
+
+		return ResponseEntity
+				.status(status)
+				.body(errorResponse);
+	}
+}
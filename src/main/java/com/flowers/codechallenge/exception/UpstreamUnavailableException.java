@@ -0,0 +1,15 @@
+package com.flowers.codechallenge.exception;
+
+/**
+ * Thrown instead of calling the upstream when its circuit breaker is
+ * open or its bulkhead is full, so that callers fail fast. Also thrown
+ * by PostDetailsFetcher when the upstream does not return the Post
+ * itself within postsFullPostTimeoutMs, since the joined response
+ * cannot be served without it.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.flowers.codechallenge.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Comment {
+    private int postId;
+    private int id;
+    private String name;
+    private String email;
+    private String body;
+}
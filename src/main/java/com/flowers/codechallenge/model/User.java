@@ -0,0 +1,20 @@
+package com.flowers.codechallenge.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class User {
+    private int id;
+    private String name;
+    private String username;
+    private String email;
+    private String phone;
+    private String website;
+}
@@ -0,0 +1,19 @@
+package com.flowers.codechallenge.overlay;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One edit recorded in the overlay log: the title and body written to the
+ * Post at a 0-based position, along with the id that Post had, so that an
+ * edit is never merged over a different Post once the upstream reorders.
+ */
+@Getter
+@AllArgsConstructor
+public class OverlayEntry {
+    private final long sequence;
+    private final int position;
+    private final int id;
+    private final String title;
+    private final String body;
+}
@@ -0,0 +1,75 @@
+package com.flowers.codechallenge.overlay;
+
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.store.PostStore;
+import com.flowers.codechallenge.store.VersionedPost;
+
+import java.util.List;
+
+/**
+ * Store recording every update in the overlay log before applying it
+ * to the store it wraps. Updates are serialized on the overlay log so
+ * that the order of the log always matches the order of the store, and
+ * so that an update whose version no longer matches is rejected before
+ * it is logged.
+ *
+ * Once a newer snapshot is published the store is superseded by the
+ * store of that snapshot, and updates still reaching it through the
+ * older snapshot are passed on, so that none is lost from the store
+ * being served.
+ */
+public class OverlayPostStore implements PostStore {
+
+    private final PostStore delegate;
+    private final PostOverlayLog overlayLog;
+    private volatile OverlayPostStore successor;
+
+    public OverlayPostStore(PostStore delegate, PostOverlayLog overlayLog) {
+        this.delegate = delegate;
+        this.overlayLog = overlayLog;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Post get(int position) {
+        return delegate.get(position);
+    }
+
+    @Override
+    public VersionedPost getVersioned(int position) {
+        return delegate.getVersioned(position);
+    }
+
+    @Override
+    public VersionedPost compareAndUpdate(int position, long expectedVersion, String title, String body) {
+        synchronized (overlayLog) {
+            if (successor != null) {
+                return successor.compareAndUpdate(position, expectedVersion, title, body);
+            }
+            VersionedPost current = delegate.getVersioned(position);
+            if (expectedVersion != VersionedPost.ANY_VERSION && current.getVersion() != expectedVersion) {
+                return null;
+            }
+            overlayLog.append(position, current.getPost().getId(), title, body);
+            return delegate.compareAndUpdate(position, current.getVersion(), title, body);
+        }
+    }
+
+    /**
+     * This method passes every further update on to the store of the
+     * snapshot published after this one. It must be called while
+     * holding the lock of the overlay log.
+     */
+    public void supersede(OverlayPostStore successor) {
+        this.successor = successor;
+    }
+
+    @Override
+    public List<Post> asList() {
+        return delegate.asList();
+    }
+}
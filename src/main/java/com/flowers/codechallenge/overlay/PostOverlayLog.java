@@ -0,0 +1,335 @@
+/**
+ * This class keeps the edits made to Posts in a local append-only
+ * log so that they survive snapshot refreshes and restarts.
+ *
+ * Edits are appended to a memory-mapped file and indexed in memory by
+ * position. Writes are not forced to disk one by one; the mapped pages
+ * are flushed together on a fixed schedule (group commit), so a crash
+ * loses at most the edits of the last interval. Every record carries a
+ * CRC32, and replay stops at the first torn or corrupt record.
+ *
+ * Superseded records are dropped by a periodic compaction which writes
+ * the latest edit of every position to a new file and atomically moves
+ * it over the log.
+ */
+
+package com.flowers.codechallenge.overlay;
+
+import com.flowers.codechallenge.store.PostStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+@Component
+@ConditionalOnProperty(name = "postsOverlayEnabled", havingValue = "true")
+public class PostOverlayLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostOverlayLog.class);
+
+    private static final int MAGIC = 0x504F4C31;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int TERMINATOR_BYTES = 4;
+
+    @Value("${postsOverlayPath:data/posts-overlay.log}")
+    String path;
+
+    @Value("${postsOverlayInitialSizeBytes:16777216}")
+    int initialSizeBytes;
+
+    @Value("${postsOverlaySyncWrites:false}")
+    boolean syncWrites;
+
+    private final Map<Integer, OverlayEntry> entries = new ConcurrentHashMap<>();
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int writePosition;
+    private long sequence;
+    private int records;
+    private volatile boolean dirty;
+
+
+    /**
+     * This method maps the log file, creating it when missing, and
+     * replays every intact record into the in-memory index
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path file = Paths.get(path);
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialSizeBytes));
+        replay();
+        LOGGER.info("Opened posts overlay log {} with {} records for {} positions", file, records, entries.size());
+    }
+
+
+    /**
+     * This method appends an edit of the Post at given position to
+     * the log and indexes it. The record is durable once the next
+     * group commit has run, or immediately when writes are synced.
+     */
+    public synchronized void append(int position, int id, String title, String body) {
+        OverlayEntry entry = new OverlayEntry(++sequence, position, id, title, body);
+        byte[] payload = encode(entry);
+        int needed = RECORD_HEADER_BYTES + payload.length + TERMINATOR_BYTES;
+
+        try {
+            if (buffer.capacity() - writePosition < needed && records > entries.size()) {
+                compact();
+            }
+            if (buffer.capacity() - writePosition < needed) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(2L * buffer.capacity(), (long) writePosition + needed));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Posts overlay log could not be extended", ex);
+        }
+
+        writePosition = writeRecord(buffer, writePosition, payload);
+        entries.put(position, entry);
+        records++;
+
+        if (syncWrites) {
+            buffer.force();
+        } else {
+            dirty = true;
+        }
+    }
+
+
+    /**
+     * This method applies the latest edit of every position to given
+     * store when the Post held there still has the id that was edited
+     *
+     * @return number of edits applied
+     */
+    public int applyTo(PostStore store) {
+        int applied = applyTo(store, 0);
+        LOGGER.info("Applied {} of {} overlay edits to posts snapshot", applied, entries.size());
+        return applied;
+    }
+
+
+    /**
+     * This method applies to given store only the edits appended after
+     * given sequence, to catch up with the edits made while the store
+     * was being merged
+     *
+     * @return number of edits applied
+     */
+    public int applyTo(PostStore store, long afterSequence) {
+        int applied = 0;
+        for (OverlayEntry entry : entries.values()) {
+            int position = entry.getPosition();
+            if (entry.getSequence() > afterSequence && position < store.size() && store.get(position).getId() == entry.getId()) {
+                store.update(position, entry.getTitle(), entry.getBody());
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+
+    /**
+     * @return sequence of the last edit appended
+     */
+    public synchronized long lastSequence() {
+        return sequence;
+    }
+
+
+    public OverlayEntry get(int position) {
+        return entries.get(position);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized int recordCount() {
+        return records;
+    }
+
+
+    /**
+     * Flushes the records appended since the last run in one force, so
+     * that writers do not wait for the disk on every append. The flush
+     * holds the lock of the log, since compaction closes and replaces
+     * the mapping it forces.
+     */
+    @Scheduled(fixedDelayString = "${postsOverlayGroupCommitMs:200}")
+    public synchronized void commit() {
+        if (dirty) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+
+    @Scheduled(initialDelayString = "${postsOverlayCompactIntervalMs:60000}", fixedDelayString = "${postsOverlayCompactIntervalMs:60000}")
+    public synchronized void scheduledCompact() {
+        if (records > 2 * entries.size()) {
+            try {
+                compact();
+            } catch (IOException ex) {
+                LOGGER.warn("Compaction of posts overlay log failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * This method rewrites the log with only the latest edit of every
+     * position. The compacted file is forced before it replaces the log,
+     * so a crash leaves either the old or the new log in place.
+     */
+    public synchronized void compact() throws IOException {
+        List<OverlayEntry> live = new ArrayList<>(entries.values());
+        live.sort(Comparator.comparingLong(OverlayEntry::getSequence));
+
+        List<byte[]> payloads = new ArrayList<>(live.size());
+        long length = FILE_HEADER_BYTES + TERMINATOR_BYTES;
+        for (OverlayEntry entry : live) {
+            byte[] payload = encode(entry);
+            payloads.add(payload);
+            length += RECORD_HEADER_BYTES + payload.length;
+        }
+
+        Path file = Paths.get(path);
+        Path compacted = Paths.get(path + ".compact");
+        long size = Math.max(initialSizeBytes, 2 * length);
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            target.putInt(0, MAGIC);
+            int position = FILE_HEADER_BYTES;
+            for (byte[] payload : payloads) {
+                position = writeRecord(target, position, payload);
+            }
+            target.force();
+        }
+
+        int previousRecords = records;
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        writePosition = (int) (length - TERMINATOR_BYTES);
+        records = live.size();
+        dirty = false;
+        LOGGER.info("Compacted posts overlay log from {} to {} records", previousRecords, records);
+    }
+
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+
+    private void replay() {
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("File " + path + " is not a posts overlay log");
+        }
+
+        int position = FILE_HEADER_BYTES;
+        while (buffer.capacity() - position >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + RECORD_HEADER_BYTES);
+            view.get(payload);
+            if (crc(payload) != buffer.getInt(position + 4)) {
+                LOGGER.warn("Posts overlay log ends with a torn record at offset {}", position);
+                break;
+            }
+
+            OverlayEntry entry = decode(payload);
+            entries.put(entry.getPosition(), entry);
+            sequence = Math.max(sequence, entry.getSequence());
+            records++;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        writePosition = position;
+    }
+
+
+    /**
+     * The record is followed by a zero length, so that replay never reads
+     * past it into the remains of a record torn by an earlier crash
+     */
+    private static int writeRecord(ByteBuffer target, int position, byte[] payload) {
+        ByteBuffer view = target.duplicate();
+        view.position(position + RECORD_HEADER_BYTES);
+        view.put(payload);
+        target.putInt(position + 4, crc(payload));
+        target.putInt(position, payload.length);
+        int next = position + RECORD_HEADER_BYTES + payload.length;
+        if (target.capacity() - next >= TERMINATOR_BYTES) {
+            target.putInt(next, 0);
+        }
+        return next;
+    }
+
+    private static byte[] encode(OverlayEntry entry) {
+        byte[] title = entry.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] body = entry.getBody().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(8 + 4 + 4 + 4 + title.length + 4 + body.length)
+                .putLong(entry.getSequence())
+                .putInt(entry.getPosition())
+                .putInt(entry.getId())
+                .putInt(title.length).put(title)
+                .putInt(body.length).put(body)
+                .array();
+    }
+
+    private static OverlayEntry decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        long sequence = in.getLong();
+        int position = in.getInt();
+        int id = in.getInt();
+        byte[] title = new byte[in.getInt()];
+        in.get(title);
+        byte[] body = new byte[in.getInt()];
+        in.get(body);
+        return new OverlayEntry(sequence, position, id, new String(title, StandardCharsets.UTF_8), new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * This class limits the number of calls to an upstream in flight
+ * at once. A call beyond the limit is rejected immediately instead
+ * of queueing behind the others.
+ */
+
+package com.flowers.codechallenge.resilience;
+
+import com.flowers.codechallenge.exception.BulkheadFullException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrentCalls) {
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxConcurrentCalls) {
+                inFlight.decrementAndGet();
+                return Mono.error(new BulkheadFullException("Bulkhead of " + name + " is full"));
+            }
+            return call.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int maxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * This class stops calls to an upstream that keeps failing.
+ *
+ * While closed, the outcomes of the last calls are kept in a fixed size
+ * window; once enough calls were made and the share of failures reaches
+ * the threshold, the breaker opens and every call fails immediately.
+ * After the open duration a few trial calls are let through: if all of
+ * them succeed the breaker closes, if any fails it opens again.
+ *
+ * Client errors (4xx) of the upstream are not counted as failures. Calls
+ * rejected by a bulkhead inside the breaker never reached the upstream
+ * and are not recorded at all, so a local burst cannot open it.
+ */
+
+package com.flowers.codechallenge.resilience;
+
+import com.flowers.codechallenge.exception.BulkheadFullException;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoTime;
+
+    private final boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent, long openMillis, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRatePercent, openMillis, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent, long openMillis, int halfOpenCalls,
+                   LongSupplier nanoTime) {
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoTime = nanoTime;
+    }
+
+
+    /**
+     * This method subscribes to given call unless the breaker is open,
+     * in which case an UpstreamUnavailableException is emitted instead,
+     * and records the outcome of the call
+     *
+     * @return Mono<T>
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                return Mono.error(new UpstreamUnavailableException("Circuit breaker of " + name + " is open"));
+            }
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            onSuccess();
+                        }
+                    })
+                    .doOnError(ex -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            if (ex instanceof BulkheadFullException) {
+                                onCancel();
+                            } else if (isFailure(ex)) {
+                                onFailure();
+                            } else {
+                                onSuccess();
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            onCancel();
+                        }
+                    });
+        });
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+                clearWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= minimumCalls && failures * 100 >= failureRatePercent * calls) {
+            open();
+        }
+    }
+
+    private synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private static boolean isFailure(Throwable ex) {
+        return !(ex instanceof WebClientResponseException
+                && ((WebClientResponseException) ex).getStatusCode().is4xxClientError());
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = nanoTime.getAsLong();
+        clearWindow();
+    }
+
+    private void clearWindow() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private void transition(State to) {
+        if (state != to) {
+            LOGGER.warn("Circuit breaker of {} changed from {} to {}", name, state, to);
+            state = to;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * This class sends a second, identical request when the first one is
+ * slower than most recent requests were, and uses whichever answers
+ * first; the other one is cancelled.
+ *
+ * The hedge delay is the configured percentile of the latencies of the
+ * last successful calls, and never less than the minimum delay. Only
+ * idempotent calls may be hedged.
+ */
+
+package com.flowers.codechallenge.resilience;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class Hedger {
+
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 20;
+
+    private final long minDelayNanos;
+    private final int percentile;
+
+    private final long[] latencies = new long[SAMPLES];
+    private int next;
+    private int count;
+
+    public Hedger(long minDelayMillis, int percentile) {
+        this.minDelayNanos = minDelayMillis * 1_000_000L;
+        this.percentile = percentile;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            Mono<T> timed = timed(call);
+            return Mono.firstWithValue(timed, Mono.delay(hedgeDelay()).then(timed))
+                    .onErrorMap(Hedger::firstCause);
+        });
+    }
+
+
+    /**
+     * This method returns the delay after which a hedged request is sent
+     *
+     * @return Duration
+     */
+    public synchronized Duration hedgeDelay() {
+        if (count < MIN_SAMPLES) {
+            return Duration.ofNanos(minDelayNanos);
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return Duration.ofNanos(Math.max(minDelayNanos, sorted[Math.max(rank, 0)]));
+    }
+
+    synchronized void record(long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % SAMPLES;
+        count = Math.min(count + 1, SAMPLES);
+    }
+
+    private <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * When both requests fail the error of the first one is reported
+     * instead of the composite raised by firstWithValue
+     */
+    private static Throwable firstCause(Throwable ex) {
+        if (ex instanceof NoSuchElementException && ex.getCause() != null) {
+            return Exceptions.unwrapMultiple(ex.getCause()).get(0);
+        }
+        return ex;
+    }
+}
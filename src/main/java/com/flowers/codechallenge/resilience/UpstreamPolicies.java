@@ -0,0 +1,72 @@
+/**
+ * This class creates and holds the UpstreamPolicy of every upstream
+ * path. Each setting is read from a property named after it, such as
+ * postsUpstreamHedgeEnabled, and can be overridden for one path by
+ * suffixing the path with its slashes replaced by dots, such as
+ * postsUpstreamHedgeEnabled.posts for /posts.
+ */
+
+package com.flowers.codechallenge.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class UpstreamPolicies {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UpstreamPolicies.class);
+
+    @Autowired
+    Environment environment;
+
+    private final Map<String, UpstreamPolicy> policies = new ConcurrentHashMap<>();
+
+
+    /**
+     * This method returns the policy of given upstream path
+     *
+     * @return UpstreamPolicy
+     */
+    public UpstreamPolicy policy(String path) {
+        return policies.computeIfAbsent(path, this::create);
+    }
+
+
+    private UpstreamPolicy create(String path) {
+        String suffix = path.replaceAll("^/+|/+$", "").replace('/', '.');
+
+        CircuitBreaker circuitBreaker = null;
+        if (setting(suffix, "postsUpstreamCircuitBreakerEnabled", Boolean.class, true)) {
+            circuitBreaker = new CircuitBreaker(path,
+                    setting(suffix, "postsUpstreamCircuitBreakerWindowSize", Integer.class, 20),
+                    setting(suffix, "postsUpstreamCircuitBreakerMinimumCalls", Integer.class, 10),
+                    setting(suffix, "postsUpstreamCircuitBreakerFailureRatePercent", Integer.class, 50),
+                    setting(suffix, "postsUpstreamCircuitBreakerOpenMs", Long.class, 10000L),
+                    setting(suffix, "postsUpstreamCircuitBreakerHalfOpenCalls", Integer.class, 3));
+        }
+
+        int maxConcurrentCalls = setting(suffix, "postsUpstreamBulkheadMaxConcurrentCalls", Integer.class, 20);
+        Bulkhead bulkhead = maxConcurrentCalls > 0 ? new Bulkhead(path, maxConcurrentCalls) : null;
+
+        Hedger hedger = null;
+        if (setting(suffix, "postsUpstreamHedgeEnabled", Boolean.class, false)) {
+            hedger = new Hedger(setting(suffix, "postsUpstreamHedgeMinDelayMs", Long.class, 50L),
+                    setting(suffix, "postsUpstreamHedgePercentile", Integer.class, 95));
+        }
+
+        LOGGER.info("Preparing upstream policy for {} with circuitBreaker: {}, maxConcurrentCalls: {}, hedge: {}",
+                path, circuitBreaker != null, maxConcurrentCalls, hedger != null);
+        return new UpstreamPolicy(circuitBreaker, bulkhead, hedger);
+    }
+
+    private <T> T setting(String suffix, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(key + "." + suffix, type);
+        return value != null ? value : environment.getProperty(key, type, defaultValue);
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * This class combines the circuit breaker, bulkhead and hedging
+ * configured for one upstream path. The circuit breaker sees the
+ * outcome of a call including its hedge, while each attempt takes
+ * its own place in the bulkhead. A call rejected by the bulkhead is
+ * not held against the upstream. Parts that are disabled are null.
+ */
+
+package com.flowers.codechallenge.resilience;
+
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+
+@Getter
+public class UpstreamPolicy {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Hedger hedger;
+
+    public UpstreamPolicy(CircuitBreaker circuitBreaker, Bulkhead bulkhead, Hedger hedger) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.hedger = hedger;
+    }
+
+
+    /**
+     * This method decorates given call with the configured policies
+     *
+     * @return Mono<T>
+     */
+    public <T> Mono<T> apply(Mono<T> call) {
+        Mono<T> attempt = bulkhead == null ? call : bulkhead.protect(call);
+        Mono<T> hedged = hedger == null ? attempt : hedger.protect(attempt);
+        return circuitBreaker == null ? hedged : circuitBreaker.protect(hedged);
+    }
+}
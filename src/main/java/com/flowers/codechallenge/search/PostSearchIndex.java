@@ -0,0 +1,216 @@
+/**
+ * This class is an inverted index over the title and body of the Posts
+ * of one snapshot, mapping every term to the compressed posting list of
+ * the positions containing it.
+ *
+ * Updates do not touch the posting lists. They go to a small delta
+ * instead, which holds every updated position and, for every term, the
+ * updated positions whose Post contains it now. Queries drop updated
+ * positions from the posting lists and merge in the positions of the
+ * delta, so a Post is tokenized once per update rather than once per
+ * query.
+ *
+ * Once too many positions are updated the snapshot builds a successor
+ * index in the background. Updates made while it is built reach both
+ * indexes, so the successor can replace this one as soon as it is built.
+ */
+
+package com.flowers.codechallenge.search;
+
+import com.flowers.codechallenge.store.PostStore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PostSearchIndex {
+
+    private static final int MIN_REBUILD_DIRTY = 1024;
+
+    private final PostStore store;
+    private final Set<Integer> updatedPositions = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Integer>> addedPositions = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> updatedTerms = new HashMap<>();
+    private final AtomicReference<PostSearchIndex> successor = new AtomicReference<>();
+    private volatile Map<String, PostingList> postings;
+
+
+    public PostSearchIndex(PostStore store) {
+        this.store = store;
+    }
+
+
+    /**
+     * This method tokenizes every Post of the store and builds the
+     * posting list of every term
+     */
+    public void build() {
+        Map<String, PositionBuffer> buffers = new HashMap<>();
+        for (int position = 0; position < store.size(); position++) {
+            for (String term : Tokenizer.terms(store.get(position))) {
+                buffers.computeIfAbsent(term, key -> new PositionBuffer()).add(position);
+            }
+        }
+
+        Map<String, PostingList> built = new HashMap<>(buffers.size() * 2);
+        buffers.forEach((term, buffer) -> built.put(term, PostingList.of(buffer.positions, buffer.size)));
+        postings = built;
+    }
+
+    public boolean isBuilt() {
+        return postings != null;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * This method moves given position from the posting lists to the
+     * delta under the terms of the Post the store holds there now. It
+     * is called after every update of the position, and the Post is
+     * read under the lock of the delta, so the last call to take the
+     * lock sees the last update and no earlier read can overwrite it.
+     */
+    public void update(int position) {
+        synchronized (updatedTerms) {
+            Set<String> terms = Tokenizer.terms(store.get(position));
+            Set<String> previous = updatedTerms.put(position, terms);
+            for (String term : previous == null ? Collections.<String>emptySet() : previous) {
+                Set<Integer> positions = addedPositions.get(term);
+                if (positions != null) {
+                    positions.remove(position);
+                }
+            }
+            for (String term : terms) {
+                addedPositions.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(position);
+            }
+            updatedPositions.add(position);
+        }
+
+        PostSearchIndex next = successor.get();
+        if (next != null) {
+            next.update(position);
+        }
+    }
+
+    public boolean needsRebuild() {
+        return updatedPositions.size() > Math.max(MIN_REBUILD_DIRTY, store.size() / 8);
+    }
+
+
+    /**
+     * This method creates the index which will replace this one and
+     * forwards every further update to it, unless a successor was
+     * already created
+     *
+     * @return the successor to build, null when one already exists
+     */
+    public PostSearchIndex startSuccessor() {
+        PostSearchIndex next = new PostSearchIndex(store);
+        return successor.compareAndSet(null, next) ? next : null;
+    }
+
+
+    /**
+     * This method returns the ascending positions of the Posts matching
+     * given terms, at most given limit of them
+     *
+     * @return int[]
+     */
+    public int[] search(Set<String> terms, SearchOperator operator, int limit) {
+        int[] result = null;
+        for (String term : terms) {
+            int[] matches = positionsOf(term);
+            if (result == null) {
+                result = matches;
+            } else if (operator == SearchOperator.AND) {
+                result = intersect(result, matches);
+            } else {
+                result = union(result, matches);
+            }
+            if (operator == SearchOperator.AND && result.length == 0) {
+                break;
+            }
+        }
+        if (result == null) {
+            return new int[0];
+        }
+        return result.length > limit ? Arrays.copyOf(result, limit) : result;
+    }
+
+
+    private int[] positionsOf(String term) {
+        PostingList postingList = postings.get(term);
+        int[] indexed = postingList == null ? new int[0] : postingList.positions();
+        if (updatedPositions.isEmpty()) {
+            return indexed;
+        }
+
+        int[] clean = new int[indexed.length];
+        int size = 0;
+        for (int position : indexed) {
+            if (!updatedPositions.contains(position)) {
+                clean[size++] = position;
+            }
+        }
+
+        Set<Integer> added = addedPositions.get(term);
+        if (added == null || added.isEmpty()) {
+            return Arrays.copyOf(clean, size);
+        }
+        int[] delta = added.stream().mapToInt(Integer::intValue).sorted().toArray();
+        return union(Arrays.copyOf(clean, size), delta);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[size++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[size++] = b[j++];
+            } else {
+                out[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+
+    private static final class PositionBuffer {
+        private int[] positions = new int[4];
+        private int size;
+
+        private void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+    }
+}
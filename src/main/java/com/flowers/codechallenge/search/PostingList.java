@@ -0,0 +1,76 @@
+/**
+ * This class holds the ascending positions of the Posts containing one
+ * term. Positions are stored as variable-length encoded gaps, so a term
+ * found in most Posts costs about one byte per Post instead of four.
+ */
+
+package com.flowers.codechallenge.search;
+
+import java.util.Arrays;
+
+public class PostingList {
+
+    private final byte[] gaps;
+    private final int size;
+
+    private PostingList(byte[] gaps, int size) {
+        this.gaps = gaps;
+        this.size = size;
+    }
+
+
+    /**
+     * This method builds a posting list from the given ascending,
+     * distinct positions
+     *
+     * @return PostingList
+     */
+    public static PostingList of(int[] positions, int size) {
+        byte[] out = new byte[size * 5];
+        int length = 0;
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            int gap = positions[i] - previous;
+            previous = positions[i];
+            while ((gap & ~0x7F) != 0) {
+                out[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            out[length++] = (byte) gap;
+        }
+        return new PostingList(Arrays.copyOf(out, length), size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int sizeInBytes() {
+        return gaps.length;
+    }
+
+
+    /**
+     * This method decodes the positions of the list
+     *
+     * @return int[]
+     */
+    public int[] positions() {
+        int[] positions = new int[size];
+        int offset = 0;
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = gaps[offset++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += gap;
+            positions[i] = previous;
+        }
+        return positions;
+    }
+}
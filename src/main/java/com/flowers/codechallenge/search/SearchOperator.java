@@ -0,0 +1,10 @@
+package com.flowers.codechallenge.search;
+
+/**
+ * How the terms of a search query are combined: AND matches Posts
+ * containing every term, OR matches Posts containing any of them.
+ */
+public enum SearchOperator {
+    AND,
+    OR
+}
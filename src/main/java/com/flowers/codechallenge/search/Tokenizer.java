@@ -0,0 +1,56 @@
+/**
+ * This Tokenizer splits text into lower case terms on every character
+ * which is neither a letter nor a digit. Queries and Posts are
+ * tokenized the same way.
+ */
+
+package com.flowers.codechallenge.search;
+
+import com.flowers.codechallenge.model.Post;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class Tokenizer {
+
+    /**
+     * This utility method returns the distinct terms of the title
+     * and body of given Post
+     *
+     * @return Set<String>
+     */
+    public static Set<String> terms(Post post) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerms(post.getTitle(), terms);
+        addTerms(post.getBody(), terms);
+        return terms;
+    }
+
+    /**
+     * This utility method returns the distinct terms of given text
+     *
+     * @return Set<String>
+     */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerms(text, terms);
+        return terms;
+    }
+
+    private static void addTerms(String text, Set<String> terms) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package com.flowers.codechallenge.service;
 
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.dto.UserStats;
 import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.store.VersionedPost;
 
 import java.util.List;
 
 public interface PostService {
 
     List<Post> getPosts();
+    List<Post> getPosts(int offset, Integer limit);
+    PostPage getPostPage(Integer offset, Integer limit, String cursor);
     Long getUniqueUserCount();
+    long getSnapshotVersion();
+    VersionedPost getPost(Long index);
+    PostDetails getPostDetails(int id);
     Post getUpdatedPost(Long id, Post post);
+    VersionedPost getUpdatedPost(Long id, Post post, String ifMatch);
+    List<PostEditResult> getUpdatedPosts(List<PostEdit> edits);
+    UserStats getUserStats(Integer top);
+    List<Post> searchPosts(String query, SearchOperator operator, Integer limit);
 }
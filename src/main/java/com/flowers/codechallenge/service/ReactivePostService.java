@@ -0,0 +1,30 @@
+package com.flowers.codechallenge.service;
+
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.dto.UserStats;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.store.VersionedPost;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactivePostService {
+
+    Flux<Post> getPosts();
+    Flux<Post> getPosts(int offset, Integer limit);
+    Mono<PostPage> getPostPage(Integer offset, Integer limit, String cursor);
+    Mono<Long> getUniqueUserCount();
+    Mono<Long> getSnapshotVersion();
+    Mono<VersionedPost> getPost(Long index);
+    Mono<PostDetails> getPostDetails(int id);
+    Mono<Post> getUpdatedPost(Long id, Post post);
+    Mono<VersionedPost> getUpdatedPost(Long id, Post post, String ifMatch);
+    Mono<List<PostEditResult>> getUpdatedPosts(List<PostEdit> edits);
+    Mono<UserStats> getUserStats(Integer top);
+    Flux<Post> searchPosts(String query, SearchOperator operator, Integer limit);
+}
@@ -0,0 +1,65 @@
+/**
+ * This class applies a batch of edits to a snapshot in one pass.
+ * Every edit is validated with the same rules as a single PUT and
+ * gets its own result, so one bad edit does not fail the batch.
+ */
+
+package com.flowers.codechallenge.service.impl;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.model.Post;
+import org.springframework.http.HttpStatus;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+final class PostEdits {
+
+    private PostEdits() {
+    }
+
+    static List<PostEditResult> apply(PostSnapshot snapshot, List<PostEdit> edits, Validator validator) {
+        List<PostEditResult> results = new ArrayList<>(edits.size());
+        for (PostEdit edit : edits) {
+            results.add(apply(snapshot, edit, validator));
+        }
+        return results;
+    }
+
+    private static PostEditResult apply(PostSnapshot snapshot, PostEdit edit, Validator validator) {
+        if (edit == null) {
+            return failed(null, "Edit should not be null !!");
+        }
+
+        Set<ConstraintViolation<PostEdit>> violations = validator.validate(edit);
+        if (!violations.isEmpty()) {
+            return failed(edit.getIndex(), violations.iterator().next().getMessage());
+        }
+
+        try {
+            Post post = snapshot.updatePost(edit.getIndex(), new Post(0, 0, edit.getTitle(), edit.getBody()));
+            return PostEditResult.builder()
+                    .index(edit.getIndex())
+                    .statusCode(HttpStatus.OK.value())
+                    .status(HttpStatus.OK.getReasonPhrase())
+                    .post(post)
+                    .build();
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            return failed(edit.getIndex(), ex.getMessage());
+        }
+    }
+
+    private static PostEditResult failed(Long index, String error) {
+        return PostEditResult.builder()
+                .index(index)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .status(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * This class cuts pages and ranges out of the Posts of a snapshot.
+ * Pages and ranges are views over the snapshot, so no Post is
+ * copied before it is written to the response. A page cursor is only
+ * valid for the snapshot version it was issued for.
+ */
+
+package com.flowers.codechallenge.service.impl;
+
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.util.PageCursor;
+
+import java.util.List;
+
+final class PostPages {
+
+    private PostPages() {
+    }
+
+    static PostPage page(List<Post> posts, long version, Integer offset, Integer limit, String cursor, int defaultLimit, int maxLimit) {
+        int start = cursor != null ? PageCursor.decode(cursor, version) : offset == null ? 0 : offset;
+        int size = Math.min(limit == null ? defaultLimit : limit, maxLimit);
+        List<Post> range = range(posts, start, size);
+        int end = start + range.size();
+
+        return PostPage.builder()
+                .offset(start)
+                .limit(size)
+                .total(posts.size())
+                .nextCursor(end < posts.size() ? PageCursor.encode(version, end) : null)
+                .posts(range)
+                .build();
+    }
+
+    static List<Post> range(List<Post> posts, int offset, Integer limit) {
+        if (offset < 0) {
+            throw new InvalidRequestParameterException("Property 'offset' should not be negative !!");
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestParameterException("Property 'limit' should be greater than zero !!");
+        }
+
+        int start = Math.min(offset, posts.size());
+        int end = limit == null ? posts.size() : (int) Math.min((long) start + limit, posts.size());
+        return posts.subList(start, end);
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * This class runs a search query against the index of a snapshot
+ * and returns the matching Posts in the order of the snapshot.
+ */
+
+package com.flowers.codechallenge.service.impl;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.search.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+final class PostSearches {
+
+    private PostSearches() {
+    }
+
+    static List<Post> search(PostSnapshot snapshot, String query, SearchOperator operator, Integer limit, int defaultLimit, int maxLimit) {
+        Set<String> terms = Tokenizer.terms(query);
+        if (terms.isEmpty()) {
+            throw new InvalidRequestParameterException("Property 'q' should not be blank !!");
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestParameterException("Property 'limit' should be greater than zero !!");
+        }
+
+        int size = Math.min(limit == null ? defaultLimit : limit, maxLimit);
+        int[] positions = snapshot.searchIndex().search(terms, operator, size);
+
+        List<Post> posts = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            posts.add(snapshot.getStore().get(position));
+        }
+        return posts;
+    }
+}
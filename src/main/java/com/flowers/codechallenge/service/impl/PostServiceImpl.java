@@ -1,26 +1,36 @@
 /**
  * This class implements PostService interface which contains methods
- * to fetch all Posts from third party service and calculates unique
- * UserIds in all Posts and also updates the nth object's data then
- * returns updated list of Posts back to the consumer
+ * to read all Posts from the in-memory snapshot of the third party
+ * service and calculates unique UserIds in all Posts and also updates
+ * the nth object's data then returns updated Post back to the consumer
  *
  * @author Nagendra Kumar Aluru
  */
 
 package com.flowers.codechallenge.service.impl;
 
+import com.flowers.codechallenge.broadcast.PostChanges;
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.cache.UserStatsCache;
+import com.flowers.codechallenge.client.PostDetailsFetcher;
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.dto.UserStats;
 import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.store.VersionedPost;
 import com.flowers.codechallenge.service.PostService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
+import javax.validation.Validator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -28,12 +38,33 @@ public class PostServiceImpl implements PostService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PostServiceImpl.class);
     @Autowired
-    WebClient webClient;
+    PostSnapshotCache postSnapshotCache;
+
+    @Autowired
+    UserStatsCache userStatsCache;
+
+    @Autowired
+    PostChanges postChanges;
+
+    @Autowired
+    PostDetailsFetcher postDetailsFetcher;
+
+    @Autowired
+    Validator validator;
+
+    @Value("${postsPageDefaultLimit:100}")
+    int defaultPageLimit;
+
+    @Value("${postsPageMaxLimit:1000}")
+    int maxPageLimit;
+
+    @Value("${postsSearchDefaultLimit:20}")
+    int defaultSearchLimit;
 
 
     /**
-     * This method read all Posts from the third party service
-     * and returns the same
+     * This method reads all Posts from the cached snapshot of
+     * the third party service and returns the same
      *
      * @return List<Post>
      */
@@ -41,15 +72,40 @@ public class PostServiceImpl implements PostService {
     public List<Post> getPosts() {
         LOGGER.info("Fetching all posts");
 
-        return webClient.get()
-                .uri("/posts")
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Post>>() {})
-                .block();
+        return postSnapshotCache.getSnapshot().getPosts();
+    }
+
+    /**
+     * This method returns a view of the Posts starting at given
+     * offset, up to given limit or to the end when none is given
+     *
+     * @return List<Post>
+     */
+    @Override
+    public List<Post> getPosts(int offset, Integer limit) {
+        LOGGER.info("Fetching posts from offset {} with limit {}", offset, limit);
+
+        return PostPages.range(postSnapshotCache.getSnapshot().getPosts(), offset, limit);
     }
 
     /**
-     * This method returns the unique userIds count
+     * This method returns one page of Posts starting at given cursor,
+     * or at given offset when no cursor is given, along with the
+     * cursor of the next page
+     *
+     * @return PostPage
+     */
+    @Override
+    public PostPage getPostPage(Integer offset, Integer limit, String cursor) {
+        LOGGER.info("Fetching page of posts from offset {} or cursor {} with limit {}", offset, cursor, limit);
+
+        PostSnapshot snapshot = postSnapshotCache.getSnapshot();
+        return PostPages.page(snapshot.getPosts(), snapshot.getVersion(), offset, limit, cursor, defaultPageLimit, maxPageLimit);
+    }
+
+    /**
+     * This method returns the unique userIds count, read from
+     * the index maintained with the cached snapshot
      *
      * @return count
      */
@@ -57,42 +113,115 @@ public class PostServiceImpl implements PostService {
     public Long getUniqueUserCount() {
         LOGGER.info("Counting unique UserIds");
 
-
-         return this.getPosts().stream()
-                .map(p -> p.getUserId())
-                 .collect(Collectors.toList())
-                 .stream()
-                 .distinct()
-                 .count();
+        return postSnapshotCache.getSnapshot().uniqueUserCount();
     }
 
+    /**
+     * This method returns the version of the cached snapshot, which
+     * changes whenever the upstream sends a new list of Posts
+     *
+     * @return version
+     */
+    @Override
+    public long getSnapshotVersion() {
+        return postSnapshotCache.getSnapshot().getVersion();
+    }
 
     /**
-     * This method returns all Posts along with updated Post
+     * This method returns the Posts whose title or body contain all
+     * or any of the words of given query, looked up in the search
+     * index of the cached snapshot
      *
      * @return List<Post>
      */
     @Override
+    public List<Post> searchPosts(String query, SearchOperator operator, Integer limit) {
+        LOGGER.info("Searching posts for '{}' with {} and limit {}", query, operator, limit);
+
+        return PostSearches.search(postSnapshotCache.getSnapshot(), query, operator, limit, defaultSearchLimit, maxPageLimit);
+    }
+
+    /**
+     * This method returns the posts per user histogram and the most
+     * active users, computed once per cached snapshot
+     *
+     * @return UserStats
+     */
+    @Override
+    public UserStats getUserStats(Integer top) {
+        LOGGER.info("Fetching user stats with top {}", top);
+
+        return userStatsCache.get(postSnapshotCache.getSnapshot(), top);
+    }
+
+
+    /**
+     * This method replaces the Post at given index in the cached
+     * snapshot with a copy having updated title and body and returns
+     * the same. The Post being replaced is never modified in place.
+     *
+     * @return Post
+     */
+    @Override
     public Post getUpdatedPost(Long index, Post mPost) {
         LOGGER.info("Fetching all posts and updating the contents of {} Post", index);
 
+        return postChanges.edited(index, postSnapshotCache.getSnapshot().updatePost(index, mPost));
+    }
 
-        if (index > this.getPosts().size()) {
-            LOGGER.info("Requested array index {} is out of range!!", index);
-            throw new ArrayIndexOutOfBoundsException("Requested array index is out of range!!");
-        }
 
-        AtomicInteger counter = new AtomicInteger();
+    /**
+     * This method replaces the Post at given index in the cached
+     * snapshot like getUpdatedPost, provided given If-Match header,
+     * when present, matches the current version of the Post, and
+     * returns the updated Post with its new version
+     *
+     * @return VersionedPost
+     */
+    @Override
+    public VersionedPost getUpdatedPost(Long index, Post mPost, String ifMatch) {
+        LOGGER.info("Updating the contents of {} Post if it matches {}", index, ifMatch);
+
+        return postChanges.edited(index, postSnapshotCache.getSnapshot().updatePost(index, mPost, ifMatch));
+    }
+
+
+    /**
+     * This method returns the Post at given index in the cached
+     * snapshot with its current version
+     *
+     * @return VersionedPost
+     */
+    @Override
+    public VersionedPost getPost(Long index) {
+        return postSnapshotCache.getSnapshot().getVersionedPost(index);
+    }
+
+
+    /**
+     * This method applies all given edits to the cached snapshot in
+     * one pass and returns the result of every edit in the same order
+     *
+     * @return List<PostEditResult>
+     */
+    @Override
+    public List<PostEditResult> getUpdatedPosts(List<PostEdit> edits) {
+        LOGGER.info("Updating the contents of {} Posts in batch", edits.size());
+
+        return postChanges.edited(PostEdits.apply(postSnapshotCache.getSnapshot(), edits, validator));
+    }
+
+
+    /**
+     * This method reads the Post with given id from the third party
+     * service, joined with its author and its comments
+     *
+     * @return PostDetails
+     */
+    @Override
+    public PostDetails getPostDetails(int id) {
+        LOGGER.info("Fetching post {} with its author and comments", id);
 
-        return this.getPosts()
-                .stream()
-                .map(post -> {
-                    counter.getAndIncrement();
-                    if (counter.get() == index) {
-                        post.setTitle(mPost.getTitle());
-                        post.setBody(mPost.getBody());
-                    }
-                    return post;
-                }).collect(Collectors.toList()).get(index.intValue()-1);
+        return postDetailsFetcher.fetch(id).block();
     }
 }
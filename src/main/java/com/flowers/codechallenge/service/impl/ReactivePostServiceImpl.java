@@ -0,0 +1,245 @@
+/**
+ * This class implements ReactivePostService interface, the non-blocking
+ * counterpart of PostServiceImpl used when the application runs as a
+ * reactive web application. It serves the same in-memory snapshot and
+ * never blocks the calling thread while the snapshot is refreshed.
+ *
+ * Edits are applied on the boundedElastic scheduler rather than on the
+ * event loop, since with the overlay log enabled an edit may extend,
+ * compact or force the log file. Searches run there too, since the first
+ * search of a snapshot builds its index.
+ */
+
+package com.flowers.codechallenge.service.impl;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.broadcast.PostChanges;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.cache.UserStatsCache;
+import com.flowers.codechallenge.client.PostDetailsFetcher;
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.dto.UserStats;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.service.ReactivePostService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Validator;
+import java.util.List;
+
+
+@Service
+public class ReactivePostServiceImpl implements ReactivePostService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactivePostServiceImpl.class);
+    @Autowired
+    PostSnapshotCache postSnapshotCache;
+
+    @Autowired
+    UserStatsCache userStatsCache;
+
+    @Autowired
+    PostChanges postChanges;
+
+    @Autowired
+    PostDetailsFetcher postDetailsFetcher;
+
+    @Autowired
+    Validator validator;
+
+    @Value("${postsPageDefaultLimit:100}")
+    int defaultPageLimit;
+
+    @Value("${postsPageMaxLimit:1000}")
+    int maxPageLimit;
+
+    @Value("${postsSearchDefaultLimit:20}")
+    int defaultSearchLimit;
+
+
+    /**
+     * This method emits all Posts from the cached snapshot of
+     * the third party service
+     *
+     * @return Flux<Post>
+     */
+    @Override
+    public Flux<Post> getPosts() {
+        LOGGER.info("Fetching all posts");
+
+        return postSnapshotCache.snapshot()
+                .flatMapIterable(PostSnapshot::getPosts);
+    }
+
+    /**
+     * This method emits the Posts starting at given offset, up to
+     * given limit or to the end when none is given
+     *
+     * @return Flux<Post>
+     */
+    @Override
+    public Flux<Post> getPosts(int offset, Integer limit) {
+        LOGGER.info("Fetching posts from offset {} with limit {}", offset, limit);
+
+        return postSnapshotCache.snapshot()
+                .flatMapIterable(snapshot -> PostPages.range(snapshot.getPosts(), offset, limit));
+    }
+
+    /**
+     * This method returns one page of Posts starting at given cursor,
+     * or at given offset when no cursor is given, along with the
+     * cursor of the next page
+     *
+     * @return Mono<PostPage>
+     */
+    @Override
+    public Mono<PostPage> getPostPage(Integer offset, Integer limit, String cursor) {
+        LOGGER.info("Fetching page of posts from offset {} or cursor {} with limit {}", offset, cursor, limit);
+
+        return postSnapshotCache.snapshot()
+                .map(snapshot -> PostPages.page(snapshot.getPosts(), snapshot.getVersion(), offset, limit, cursor, defaultPageLimit, maxPageLimit));
+    }
+
+    /**
+     * This method returns the unique userIds count
+     *
+     * @return Mono<Long>
+     */
+    @Override
+    public Mono<Long> getUniqueUserCount() {
+        LOGGER.info("Counting unique UserIds");
+
+        return postSnapshotCache.snapshot()
+                .map(PostSnapshot::uniqueUserCount);
+    }
+
+    /**
+     * This method returns the version of the cached snapshot, which
+     * changes whenever the upstream sends a new list of Posts
+     *
+     * @return Mono<Long>
+     */
+    @Override
+    public Mono<Long> getSnapshotVersion() {
+        return postSnapshotCache.snapshot()
+                .map(PostSnapshot::getVersion);
+    }
+
+    /**
+     * This method emits the Posts whose title or body contain all
+     * or any of the words of given query, looked up in the search
+     * index of the cached snapshot
+     *
+     * @return Flux<Post>
+     */
+    @Override
+    public Flux<Post> searchPosts(String query, SearchOperator operator, Integer limit) {
+        LOGGER.info("Searching posts for '{}' with {} and limit {}", query, operator, limit);
+
+        return postSnapshotCache.snapshot()
+                .publishOn(Schedulers.boundedElastic())
+                .flatMapIterable(snapshot -> PostSearches.search(snapshot, query, operator, limit, defaultSearchLimit, maxPageLimit));
+    }
+
+    /**
+     * This method returns the posts per user histogram and the most
+     * active users, computed once per cached snapshot
+     *
+     * @return Mono<UserStats>
+     */
+    @Override
+    public Mono<UserStats> getUserStats(Integer top) {
+        LOGGER.info("Fetching user stats with top {}", top);
+
+        return postSnapshotCache.snapshot()
+                .map(snapshot -> userStatsCache.get(snapshot, top));
+    }
+
+
+    /**
+     * This method replaces the Post at given index in the cached
+     * snapshot with a copy having updated title and body
+     *
+     * @return Mono<Post>
+     */
+    @Override
+    public Mono<Post> getUpdatedPost(Long index, Post mPost) {
+        LOGGER.info("Fetching all posts and updating the contents of {} Post", index);
+
+        return postSnapshotCache.snapshot()
+                .publishOn(Schedulers.boundedElastic())
+                .map(snapshot -> postChanges.edited(index, snapshot.updatePost(index, mPost)));
+    }
+
+
+    /**
+     * This method replaces the Post at given index in the cached
+     * snapshot like getUpdatedPost, provided given If-Match header,
+     * when present, matches the current version of the Post, and
+     * emits the updated Post with its new version
+     *
+     * @return Mono<VersionedPost>
+     */
+    @Override
+    public Mono<VersionedPost> getUpdatedPost(Long index, Post mPost, String ifMatch) {
+        LOGGER.info("Updating the contents of {} Post if it matches {}", index, ifMatch);
+
+        return postSnapshotCache.snapshot()
+                .publishOn(Schedulers.boundedElastic())
+                .map(snapshot -> postChanges.edited(index, snapshot.updatePost(index, mPost, ifMatch)));
+    }
+
+
+    /**
+     * This method emits the Post at given index in the cached
+     * snapshot with its current version
+     *
+     * @return Mono<VersionedPost>
+     */
+    @Override
+    public Mono<VersionedPost> getPost(Long index) {
+        return postSnapshotCache.snapshot()
+                .map(snapshot -> snapshot.getVersionedPost(index));
+    }
+
+
+    /**
+     * This method applies all given edits to the cached snapshot in
+     * one pass and returns the result of every edit in the same order
+     *
+     * @return Mono<List<PostEditResult>>
+     */
+    @Override
+    public Mono<List<PostEditResult>> getUpdatedPosts(List<PostEdit> edits) {
+        LOGGER.info("Updating the contents of {} Posts in batch", edits.size());
+
+        return postSnapshotCache.snapshot()
+                .publishOn(Schedulers.boundedElastic())
+                .map(snapshot -> postChanges.edited(PostEdits.apply(snapshot, edits, validator)));
+    }
+
+
+    /**
+     * This method reads the Post with given id from the third party
+     * service, joined with its author and its comments
+     *
+     * @return Mono<PostDetails>
+     */
+    @Override
+    public Mono<PostDetails> getPostDetails(int id) {
+        LOGGER.info("Fetching post {} with its author and comments", id);
+
+        return postDetailsFetcher.fetch(id);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * This class stores the Posts of a snapshot in an array indexed by
+ * position. An update builds a new Post and swaps it into its slot
+ * with a compare-and-set, so a PUT is a constant time lookup and
+ * replace, concurrent readers see either the old or the new Post,
+ * never a mix of both, and concurrent writers never block each other.
+ *
+ * A slot holds its Post as is until the first update and shares the
+ * base version of the store until then; an updated slot holds an
+ * immutable VersionedPost. Versioning costs no memory for the Posts
+ * that are never updated.
+ */
+
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class ArrayPostStore implements PostStore {
+
+    private final AtomicReferenceArray<Object> slots;
+    private final long baseVersion = PostVersions.next();
+
+    public ArrayPostStore(List<Post> posts) {
+        this.slots = new AtomicReferenceArray<>(posts.toArray());
+    }
+
+    @Override
+    public int size() {
+        return slots.length();
+    }
+
+    @Override
+    public Post get(int position) {
+        return postOf(slots.get(position));
+    }
+
+    @Override
+    public VersionedPost getVersioned(int position) {
+        return versioned(slots.get(position));
+    }
+
+    @Override
+    public VersionedPost compareAndUpdate(int position, long expectedVersion, String title, String body) {
+        while (true) {
+            Object slot = slots.get(position);
+            VersionedPost current = versioned(slot);
+            if (expectedVersion != VersionedPost.ANY_VERSION && current.getVersion() != expectedVersion) {
+                return null;
+            }
+            Post updated = Post.builder()
+                    .userId(current.getPost().getUserId())
+                    .id(current.getPost().getId())
+                    .title(title)
+                    .body(body)
+                    .build();
+            VersionedPost next = new VersionedPost(updated, PostVersions.next());
+            if (slots.compareAndSet(position, slot, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public List<Post> asList() {
+        return new PostListView();
+    }
+
+    private VersionedPost versioned(Object slot) {
+        return slot instanceof VersionedPost ? (VersionedPost) slot : new VersionedPost((Post) slot, baseVersion);
+    }
+
+    private static Post postOf(Object slot) {
+        return slot instanceof VersionedPost ? ((VersionedPost) slot).getPost() : (Post) slot;
+    }
+
+    private final class PostListView extends AbstractList<Post> implements RandomAccess {
+        @Override
+        public Post get(int index) {
+            return postOf(slots.get(index));
+        }
+
+        @Override
+        public int size() {
+            return slots.length();
+        }
+    }
+}
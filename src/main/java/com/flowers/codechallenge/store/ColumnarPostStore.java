@@ -0,0 +1,292 @@
+/**
+ * This class stores the Posts of a snapshot column by column instead
+ * of as Post objects: userIds and ids in int arrays, titles and bodies
+ * as UTF-8 records in one shared buffer, which may live off heap. A
+ * Post is only materialized when it is read.
+ *
+ * Every position holds the offset of its record, a title length, a body
+ * length and the version of the Post followed by the bytes of title and
+ * body. An update appends a new record and then swaps the offset, so
+ * concurrent readers see either the old or the new Post and version,
+ * never a mix of both. Updates are serialized, so checking the version
+ * of a conditional update and swapping the offset cannot interleave.
+ * The space of replaced records is reclaimed when the buffer is full
+ * and at least half of it is garbage; growing or compacting copies the
+ * records into a new segment which is published as a whole, so a
+ * reader always pairs an offset with the buffer it points into.
+ */
+
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ColumnarPostStore implements PostStore {
+
+    private static final int VERSION_OFFSET = 2 * Integer.BYTES;
+    private static final int HEADER_BYTES = VERSION_OFFSET + Long.BYTES;
+    private static final int MIN_SLACK_BYTES = 64 * 1024;
+    private static final int MAX_BUFFER_BYTES = Integer.MAX_VALUE - 8;
+
+    private final int[] userIds;
+    private final int[] ids;
+    private final boolean offHeap;
+    private final int maxBufferBytes;
+    private volatile Segment segment;
+    private long garbageBytes;
+
+    private ColumnarPostStore(int[] userIds, int[] ids, Segment segment, boolean offHeap, int maxBufferBytes) {
+        this.userIds = userIds;
+        this.ids = ids;
+        this.segment = segment;
+        this.offHeap = offHeap;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    public static ColumnarPostStore of(List<Post> posts, boolean offHeap) {
+        Builder builder = builder(offHeap);
+        posts.forEach(builder::add);
+        return builder.build();
+    }
+
+    public static Builder builder(boolean offHeap) {
+        return new Builder(offHeap, MAX_BUFFER_BYTES);
+    }
+
+    static Builder builder(boolean offHeap, int maxBufferBytes) {
+        return new Builder(offHeap, maxBufferBytes);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Post get(int position) {
+        Segment current = segment;
+        return current.read(current.offsets.get(position), userIds[position], ids[position]);
+    }
+
+    @Override
+    public VersionedPost getVersioned(int position) {
+        Segment current = segment;
+        int offset = current.offsets.get(position);
+        return new VersionedPost(current.read(offset, userIds[position], ids[position]), current.version(offset));
+    }
+
+    @Override
+    public synchronized VersionedPost compareAndUpdate(int position, long expectedVersion, String title, String body) {
+        if (expectedVersion != VersionedPost.ANY_VERSION && segment.version(segment.offsets.get(position)) != expectedVersion) {
+            return null;
+        }
+        long version = PostVersions.next();
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + titleBytes.length + bodyBytes.length;
+
+        Segment current = segment;
+        if (current.capacity() - current.used < recordBytes) {
+            current = resize(current, recordBytes);
+            segment = current;
+        }
+        int offset = current.used;
+        current.write(offset, titleBytes, bodyBytes, version);
+        current.used += recordBytes;
+        garbageBytes += current.recordBytes(current.offsets.get(position));
+        current.offsets.set(position, offset);
+
+        return new VersionedPost(new Post(userIds[position], ids[position], title, body), version);
+    }
+
+    @Override
+    public List<Post> asList() {
+        return new PostListView();
+    }
+
+    /**
+     * This method returns the number of bytes held by the text buffer,
+     * including the space not used yet
+     *
+     * @return bytes
+     */
+    public synchronized long bufferCapacity() {
+        return segment.capacity();
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+
+    /**
+     * A full segment is compacted when at least half of it holds replaced
+     * records, otherwise it grows. Either way the live records are copied
+     * into a new segment.
+     */
+    private Segment resize(Segment current, int recordBytes) {
+        long liveBytes = current.used - garbageBytes;
+        long needed = liveBytes + recordBytes;
+        long capacity = garbageBytes * 2 >= current.used ? needed + needed / 2 : Math.max(needed, 2L * current.capacity());
+        capacity = Math.min(Math.max(capacity, needed + MIN_SLACK_BYTES), maxBufferBytes);
+        if (capacity < needed) {
+            throw new IllegalStateException("Posts text does not fit in a buffer of " + capacity + " bytes");
+        }
+
+        Segment resized = new Segment(allocate((int) capacity, offHeap), ids.length);
+        for (int position = 0; position < ids.length; position++) {
+            int offset = current.offsets.get(position);
+            int length = current.recordBytes(offset);
+            resized.copy(current, offset, length);
+            resized.offsets.set(position, resized.used);
+            resized.used += length;
+        }
+        garbageBytes = 0;
+        return resized;
+    }
+
+    private static ByteBuffer allocate(int capacity, boolean offHeap) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+
+    private static final class Segment {
+        private final ByteBuffer buffer;
+        private final AtomicIntegerArray offsets;
+        private int used;
+
+        private Segment(ByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.offsets = new AtomicIntegerArray(size);
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+
+        private int recordBytes(int offset) {
+            return HEADER_BYTES + buffer.getInt(offset) + buffer.getInt(offset + Integer.BYTES);
+        }
+
+        private long version(int offset) {
+            return buffer.getLong(offset + VERSION_OFFSET);
+        }
+
+        private Post read(int offset, int userId, int id) {
+            int titleLength = buffer.getInt(offset);
+            int bodyLength = buffer.getInt(offset + Integer.BYTES);
+            int titleStart = offset + HEADER_BYTES;
+            return new Post(userId, id, decode(titleStart, titleLength), decode(titleStart + titleLength, bodyLength));
+        }
+
+        private String decode(int start, int length) {
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+            }
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(start).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void write(int offset, byte[] title, byte[] body, long version) {
+            ByteBuffer target = buffer.duplicate();
+            target.position(offset);
+            target.putInt(title.length).putInt(body.length).putLong(version).put(title).put(body);
+        }
+
+        private void copy(Segment source, int offset, int length) {
+            ByteBuffer from = source.buffer.duplicate();
+            from.position(offset).limit(offset + length);
+            buffer.duplicate().position(used).put(from);
+        }
+    }
+
+
+    /**
+     * Collects the Posts of a snapshot as they are decoded, so that the
+     * Post objects can be dropped right away instead of being held in a
+     * list until the store is built. A Post whose text would take the
+     * buffer past its limit is rejected with an IllegalStateException,
+     * as an update is.
+     */
+    public static final class Builder {
+        private final boolean offHeap;
+        private final int maxBufferBytes;
+        private final long baseVersion = PostVersions.next();
+        private int[] userIds = new int[1024];
+        private int[] ids = new int[1024];
+        private int[] offsets = new int[1024];
+        private byte[] text = new byte[64 * 1024];
+        private int size;
+        private int used;
+
+        private Builder(boolean offHeap, int maxBufferBytes) {
+            this.offHeap = offHeap;
+            this.maxBufferBytes = maxBufferBytes;
+        }
+
+        public Builder add(Post post) {
+            byte[] title = post.getTitle() == null ? new byte[0] : post.getTitle().getBytes(StandardCharsets.UTF_8);
+            byte[] body = post.getBody() == null ? new byte[0] : post.getBody().getBytes(StandardCharsets.UTF_8);
+            if (size == ids.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            long recordBytes = (long) HEADER_BYTES + title.length + body.length;
+            long needed = used + recordBytes;
+            if (needed > maxBufferBytes) {
+                throw new IllegalStateException("Posts text does not fit in a buffer of " + maxBufferBytes
+                        + " bytes, Post " + post.getId() + " would need " + needed);
+            }
+            if (text.length < needed) {
+                text = Arrays.copyOf(text, (int) Math.min(maxBufferBytes, Math.max(2L * text.length, needed)));
+            }
+
+            userIds[size] = post.getUserId();
+            ids[size] = post.getId();
+            offsets[size] = used;
+            ByteBuffer.wrap(text, used, (int) recordBytes).putInt(title.length).putInt(body.length).putLong(baseVersion).put(title).put(body);
+            used = (int) needed;
+            size++;
+            return this;
+        }
+
+        /**
+         * This method builds the store, leaving room in its buffer for
+         * about one update in sixteen Posts before it has to grow
+         *
+         * @return ColumnarPostStore
+         */
+        public ColumnarPostStore build() {
+            int capacity = (int) Math.min(maxBufferBytes, used + Math.max(MIN_SLACK_BYTES, used / 16L));
+            Segment segment = new Segment(allocate(capacity, offHeap), size);
+            segment.buffer.duplicate().put(text, 0, used);
+            segment.used = used;
+            for (int position = 0; position < size; position++) {
+                segment.offsets.set(position, offsets[position]);
+            }
+            return new ColumnarPostStore(Arrays.copyOf(userIds, size), Arrays.copyOf(ids, size), segment, offHeap, maxBufferBytes);
+        }
+    }
+
+
+    private final class PostListView extends AbstractList<Post> implements RandomAccess {
+        @Override
+        public Post get(int index) {
+            return ColumnarPostStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
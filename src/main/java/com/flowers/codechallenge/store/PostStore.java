@@ -0,0 +1,39 @@
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+
+import java.util.List;
+
+/**
+ * Positional storage of the Posts of one snapshot. Positions are 0-based.
+ * Reads never block and always observe a whole Post; an update replaces
+ * the Post held at a position instead of modifying it.
+ *
+ * Every position carries a version which changes with each update, read
+ * together with its Post. An update may be made conditional on the
+ * version, so that concurrent writers of one position never overwrite a
+ * Post they have not seen.
+ */
+public interface PostStore {
+
+    int size();
+
+    Post get(int position);
+
+    VersionedPost getVersioned(int position);
+
+    /**
+     * This method replaces the Post at given position unless its version
+     * is no longer given expected version, VersionedPost.ANY_VERSION to
+     * replace it whatever its version
+     *
+     * @return the new VersionedPost, null when the version did not match
+     */
+    VersionedPost compareAndUpdate(int position, long expectedVersion, String title, String body);
+
+    default Post update(int position, String title, String body) {
+        return compareAndUpdate(position, VersionedPost.ANY_VERSION, title, body).getPost();
+    }
+
+    List<Post> asList();
+}
@@ -0,0 +1,20 @@
+package com.flowers.codechallenge.store;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of the versions of all stores. The sequence starts from the
+ * clock in microseconds so that a restarted service does not hand out
+ * the versions of its previous run again.
+ */
+final class PostVersions {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private PostVersions() {
+    }
+
+    static long next() {
+        return SEQUENCE.incrementAndGet();
+    }
+}
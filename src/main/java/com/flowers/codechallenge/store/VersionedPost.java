@@ -0,0 +1,46 @@
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A Post along with the version of the slot holding it. Versions are
+ * drawn from one sequence shared by all stores, so a version is never
+ * reused by another Post, another snapshot or, within a clock tick, by
+ * another run. The version is sent to clients as a strong ETag.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionedPost {
+
+    /**
+     * Expected version of an unconditional update
+     */
+    public static final long ANY_VERSION = -1;
+
+    private final Post post;
+    private final long version;
+
+    public String getEtag() {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * This method checks whether given If-Match header matches the ETag
+     * of this version. Weak tags never match, as If-Match requires a
+     * strong comparison.
+     *
+     * @return boolean
+     */
+    public boolean matches(String ifMatch) {
+        String etag = getEtag();
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * This class counts occurrences of int keys in a primitive
+ * open-addressing hash table so that adding, removing and
+ * reading counts never boxes a key or allocates an entry.
+ *
+ * Updates are serialized on the instance while the number of
+ * distinct keys is published through a volatile field and can
+ * be read at any time without locking.
+ */
+
+package com.flowers.codechallenge.util;
+
+import java.util.function.IntUnaryOperator;
+
+public class IntCountMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] counts;
+    private int mask;
+    private volatile int distinct;
+    private long total;
+
+    public IntCountMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntCountMap(int expectedKeys) {
+        allocate(tableSizeFor(expectedKeys));
+    }
+
+
+    /**
+     * This method increments the count of given key by one
+     */
+    public synchronized void add(int key) {
+        int slot = find(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            distinct++;
+            if (distinct * 2 > keys.length) {
+                counts[slot] = 1;
+                total++;
+                grow();
+                return;
+            }
+        }
+        counts[slot]++;
+        total++;
+    }
+
+
+    /**
+     * This method decrements the count of given key by one and
+     * drops the key once its count reaches zero
+     *
+     * @return true when the key was present
+     */
+    public synchronized boolean remove(int key) {
+        int slot = find(key);
+        if (counts[slot] == 0) {
+            return false;
+        }
+        total--;
+        if (--counts[slot] == 0) {
+            distinct--;
+            shiftBack(slot);
+        }
+        return true;
+    }
+
+
+    /**
+     * This method returns the count of given key, zero when absent
+     *
+     * @return count
+     */
+    public synchronized int get(int key) {
+        return counts[find(key)];
+    }
+
+
+    /**
+     * This method returns the number of keys with a non zero count
+     *
+     * @return distinct
+     */
+    public int distinctCount() {
+        return distinct;
+    }
+
+
+    /**
+     * This method returns the sum of all counts
+     *
+     * @return total
+     */
+    public synchronized long totalCount() {
+        return total;
+    }
+
+
+    /**
+     * This method calls given consumer for every key with its count
+     */
+    public synchronized void forEach(IntIntConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+
+    /**
+     * This method builds a map counting the key extracted from
+     * every index in the range [0, size)
+     *
+     * @return IntCountMap
+     */
+    public static IntCountMap of(int size, IntUnaryOperator keyAt) {
+        IntCountMap map = new IntCountMap();
+        for (int i = 0; i < size; i++) {
+            map.add(keyAt.applyAsInt(i));
+        }
+        return map;
+    }
+
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int count);
+    }
+
+
+    private int find(int key) {
+        int slot = mix(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (counts[slot] == 0) {
+                break;
+            }
+            int home = mix(keys[slot]) & mask;
+            // move the entry into the hole unless its home lies cyclically in (hole, slot]
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                counts[hole] = counts[slot];
+                counts[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedKeys) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedKeys * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * This class keeps the k keys with the highest counts seen so far in a
+ * bounded min-heap on primitive arrays. Ties are broken towards the
+ * smaller key so that the result does not depend on the offer order.
+ */
+
+package com.flowers.codechallenge.util;
+
+public class IntTopKHeap {
+
+    private final int[] keys;
+    private final int[] counts;
+    private int size;
+
+    public IntTopKHeap(int k) {
+        this.keys = new int[k];
+        this.counts = new int[k];
+    }
+
+
+    /**
+     * This method offers a key with its count, keeping it only when
+     * it ranks among the k best seen so far
+     */
+    public void offer(int key, int count) {
+        if (keys.length == 0) {
+            return;
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            siftUp(size++);
+        } else if (ranksAbove(key, count, keys[0], counts[0])) {
+            keys[0] = key;
+            counts[0] = count;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * This method empties the heap, passing the kept keys to given
+     * consumer from the highest to the lowest count
+     */
+    public void drainDescending(IntCountMap.IntIntConsumer consumer) {
+        int[] sortedKeys = new int[size];
+        int[] sortedCounts = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sortedKeys[i] = keys[0];
+            sortedCounts[i] = counts[0];
+            size--;
+            keys[0] = keys[size];
+            counts[0] = counts[size];
+            siftDown(0);
+        }
+        for (int i = 0; i < sortedKeys.length; i++) {
+            consumer.accept(sortedKeys[i], sortedCounts[i]);
+        }
+    }
+
+
+    private static boolean ranksAbove(int key, int count, int otherKey, int otherCount) {
+        return count != otherCount ? count > otherCount : key < otherKey;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(keys[parent], counts[parent], keys[index], counts[index])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(keys[lowest], counts[lowest], keys[left], counts[left])) {
+                lowest = left;
+            }
+            if (right < size && ranksAbove(keys[lowest], counts[lowest], keys[right], counts[right])) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(index, lowest);
+            index = lowest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int key = keys[i];
+        int count = counts[i];
+        keys[i] = keys[j];
+        counts[i] = counts[j];
+        keys[j] = key;
+        counts[j] = count;
+    }
+}
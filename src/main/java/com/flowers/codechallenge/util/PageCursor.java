@@ -0,0 +1,62 @@
+/**
+ * This PageCursor has methods to turn the position the next page
+ * starts at into an opaque cursor and back. The cursor carries the
+ * version of the snapshot it was cut from, so a cursor issued before
+ * the Posts were refreshed is rejected instead of skipping or
+ * repeating Posts.
+ */
+
+package com.flowers.codechallenge.util;
+
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class PageCursor {
+
+    private static final String PREFIX = "p:";
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * This utility method returns the cursor of given position in
+     * the snapshot of given version
+     *
+     * @return String
+     */
+    public static String encode(long version, int position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + version + SEPARATOR + position).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * This utility method returns the position of given cursor, which
+     * must have been issued for the snapshot of given version
+     *
+     * @return int
+     */
+    public static int decode(String cursor, long version) {
+        long cursorVersion;
+        int position;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(SEPARATOR, PREFIX.length());
+            if (!decoded.startsWith(PREFIX) || separator < 0) {
+                throw new InvalidRequestParameterException("Property 'cursor' is not valid !!");
+            }
+            cursorVersion = Long.parseLong(decoded.substring(PREFIX.length(), separator));
+            position = Integer.parseInt(decoded.substring(separator + 1));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException included
+            throw new InvalidRequestParameterException("Property 'cursor' is not valid !!");
+        }
+        if (position < 0) {
+            throw new InvalidRequestParameterException("Property 'cursor' is not valid !!");
+        }
+        if (cursorVersion != version) {
+            throw new InvalidRequestParameterException("Property 'cursor' belongs to an earlier version of the posts, start again from the first page !!");
+        }
+        return position;
+    }
+}
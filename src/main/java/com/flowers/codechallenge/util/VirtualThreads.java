@@ -0,0 +1,62 @@
+/**
+ * This class creates executors running every task on its own virtual
+ * thread. Virtual threads need Java 21 or later while the project is
+ * built for Java 11, so the JDK API is looked up reflectively and
+ * isSupported tells whether the running JVM provides it.
+ */
+
+package com.flowers.codechallenge.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+
+    /**
+     * This method tells whether the running JVM supports virtual threads
+     *
+     * @return boolean
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+
+    /**
+     * This method returns an executor starting a new virtual thread named
+     * with given prefix and a sequence number for every task
+     *
+     * @return ExecutorService
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later, running on " + Runtime.version());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", ex);
+        }
+    }
+
+
+    private static Method lookup(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * This class names the media types the API reads and writes besides
+ * JSON: Smile and CBOR, binary encodings of the same Jackson model
+ * which are smaller and cheaper to encode and decode.
+ */
+
+package com.flowers.codechallenge.util;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class WireFormats {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    private static final List<MediaType> SUPPORTED = Arrays.asList(MediaType.APPLICATION_JSON, APPLICATION_SMILE, MediaType.APPLICATION_CBOR);
+
+    private WireFormats() {
+    }
+
+
+    /**
+     * This method returns the supported media type preferred by given
+     * Accept header, JSON when there is none or nothing else matches
+     *
+     * @return MediaType
+     */
+    public static MediaType negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptable : accepted) {
+            if (acceptable.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType supported : SUPPORTED) {
+                if (acceptable.isCompatibleWith(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
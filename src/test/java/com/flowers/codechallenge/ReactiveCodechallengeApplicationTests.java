@@ -0,0 +1,23 @@
+package com.flowers.codechallenge;
+
+import com.flowers.codechallenge.controller.ReactivePostController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveCodechallengeApplicationTests {
+
+	@Autowired
+	ReactivePostController reactivePostController;
+
+	@Test
+	void contextLoads() {
+		assertNotNull(reactivePostController);
+	}
+
+}
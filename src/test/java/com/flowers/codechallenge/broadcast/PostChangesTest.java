@@ -0,0 +1,199 @@
+package com.flowers.codechallenge.broadcast;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.client.PostsClient;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class PostChangesTest {
+
+    private final Node first = new Node();
+
+    private final Node second = new Node();
+
+    @BeforeEach
+    void setUp() {
+        first.open();
+        second.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.channel.leave();
+        second.channel.leave();
+    }
+
+    private static List<Post> posts() {
+        List<Post> posts = new ArrayList<>();
+        posts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+        posts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
+        posts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
+        return posts;
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check an edit made on one node is applied on the other")
+    void should_ApplyRemoteEdit_When_EditIsPublished() {
+        //given
+        Post updated = first.snapshot.updatePost(2L, new Post(0, 0, "1800Flowers", "1800Flowers"));
+
+        //when
+        first.postChanges.edited(2L, updated);
+
+        //then
+        assertAll(
+                () -> assertEquals("1800Flowers", second.snapshot.getPosts().get(1).getTitle()),
+                () -> assertEquals("1800Flowers", second.snapshot.getPosts().get(1).getBody()),
+                () -> assertEquals("1800Flowers1", second.snapshot.getPosts().get(0).getTitle()),
+                () -> assertEquals(updated, first.snapshot.getPosts().get(1))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check successful batch edits are applied on the other node")
+    void should_ApplyRemoteEdits_When_BatchIsPublished() {
+        //given
+        List<PostEditResult> results = Arrays.asList(
+                PostEditResult.builder().index(1L).statusCode(200).post(new Post(1, 1, "1800Flowers", "1800Flowers")).build(),
+                PostEditResult.builder().index(3L).statusCode(400).error("Property 'title' should not be null or blank !!").build());
+
+        //when
+        first.postChanges.edited(results);
+
+        //then
+        assertEquals("1800Flowers", second.snapshot.getPosts().get(0).getTitle());
+        assertEquals("1800Flowers3", second.snapshot.getPosts().get(2).getTitle());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a remote edit of a Post the node does not hold is ignored")
+    void should_IgnoreRemoteEdit_When_IdDoesNotMatch() {
+        //when
+        first.postChanges.edited(2L, new Post(1, 7, "1800Flowers", "1800Flowers"));
+
+        //then
+        assertEquals("1800Flowers2", second.snapshot.getPosts().get(1).getTitle());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a new snapshot on one node makes the others revalidate")
+    void should_Revalidate_When_RefreshIsPublished() {
+        //when
+        first.channel.publish(PostChange.refresh(first.channel.nodeId()));
+
+        //then
+        verify(second.cache).revalidate();
+        verify(first.cache, never()).revalidate();
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check refreshes stay bounded when the upstream sends no validators")
+    void should_NotRefreshEndlessly_When_UpstreamHasNoValidators() throws InterruptedException {
+        //given
+        AtomicInteger upstreamRequests = new AtomicInteger();
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/posts", (request, response) -> {
+                    upstreamRequests.incrementAndGet();
+                    return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just("[{\"userId\":1,\"id\":1,\"title\":\"1800Flowers\",\"body\":\"1800Flowers\"}]"));
+                }))
+                .bindNow();
+        LoopbackPostChangeChannel firstChannel = new LoopbackPostChangeChannel();
+        LoopbackPostChangeChannel secondChannel = new LoopbackPostChangeChannel();
+        PostSnapshotCache firstCache = cache(server.port(), firstChannel);
+        PostSnapshotCache secondCache = cache(server.port(), secondChannel);
+
+        try {
+            //when
+            firstCache.refresh();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (upstreamRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(500);
+
+            //then
+            assertAll(
+                    () -> assertEquals(2, upstreamRequests.get()),
+                    () -> assertNotNull(secondCache.getCurrent())
+            );
+        } finally {
+            firstChannel.leave();
+            secondChannel.leave();
+            server.disposeNow();
+        }
+
+    }
+
+    private static PostSnapshotCache cache(int port, LoopbackPostChangeChannel channel) {
+        PostsClient postsClient = new PostsClient();
+        UpstreamPolicies upstreamPolicies = new UpstreamPolicies();
+        ReflectionTestUtils.setField(upstreamPolicies, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(postsClient, "webClient", WebClient.create("http://127.0.0.1:" + port));
+        ReflectionTestUtils.setField(postsClient, "upstreamPolicies", upstreamPolicies);
+        ReflectionTestUtils.setField(postsClient, "streamingDecode", true);
+
+        PostSnapshotCache cache = new PostSnapshotCache();
+        ReflectionTestUtils.setField(cache, "postsClient", postsClient);
+        ReflectionTestUtils.setField(cache, "changeChannel", channel);
+        ReflectionTestUtils.setField(cache, "refreshIntervalMs", 30000L);
+        ReflectionTestUtils.setField(cache, "maxStalenessMs", 300000L);
+
+        channel.group = "PostChangesTest-validators";
+        channel.join();
+        PostChanges postChanges = new PostChanges();
+        postChanges.postSnapshotCache = cache;
+        postChanges.changeChannel = channel;
+        postChanges.subscribe();
+        return cache;
+    }
+
+
+    private static final class Node {
+        private final PostSnapshotCache cache = Mockito.mock(PostSnapshotCache.class);
+        private final PostSnapshot snapshot = new PostSnapshot(1L, posts(), 0L);
+        private final LoopbackPostChangeChannel channel = new LoopbackPostChangeChannel();
+        private final PostChanges postChanges = new PostChanges();
+
+        private void open() {
+            when(cache.getCurrent()).thenReturn(snapshot);
+            channel.group = "PostChangesTest";
+            channel.join();
+            postChanges.postSnapshotCache = cache;
+            postChanges.changeChannel = channel;
+            postChanges.subscribe();
+        }
+    }
+}
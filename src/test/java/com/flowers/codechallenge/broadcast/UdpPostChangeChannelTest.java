@@ -0,0 +1,129 @@
+package com.flowers.codechallenge.broadcast;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class UdpPostChangeChannelTest {
+
+    private final List<UdpPostChangeChannel> channels = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (UdpPostChangeChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private UdpPostChangeChannel open(String targets) throws IOException {
+        return open("127.0.0.1", 0, targets, "");
+    }
+
+    private UdpPostChangeChannel open(String bindAddress, int port, String targets, String interfaceName) throws IOException {
+        UdpPostChangeChannel channel = new UdpPostChangeChannel();
+        channel.bindAddress = bindAddress;
+        channel.port = port;
+        channel.targets = targets;
+        channel.interfaceName = interfaceName;
+        channel.open();
+        channels.add(channel);
+        return channel;
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check a change is delivered to a peer over UDP and decoded intact")
+    void should_DeliverChange_When_PublishedToPeer() throws Exception {
+        //given
+        UdpPostChangeChannel receiver = open("");
+        UdpPostChangeChannel sender = open("127.0.0.1:" + receiver.localPort());
+        BlockingQueue<PostChange> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        //when
+        sender.publish(PostChange.edit(sender.nodeId(), 41, 42, "1800Flowers", "1800Flowers é☀"));
+        sender.publish(PostChange.refresh(sender.nodeId()));
+
+        //then
+        PostChange edit = received.poll(10, TimeUnit.SECONDS);
+        PostChange refresh = received.poll(10, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(PostChange.Type.EDIT, edit.getType()),
+                () -> assertEquals(sender.nodeId(), edit.getOrigin()),
+                () -> assertEquals(41, edit.getPosition()),
+                () -> assertEquals(42, edit.getId()),
+                () -> assertEquals("1800Flowers", edit.getTitle()),
+                () -> assertEquals("1800Flowers é☀", edit.getBody()),
+                () -> assertEquals(PostChange.Type.REFRESH, refresh.getType())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a node ignores its own changes and datagrams it cannot decode")
+    void should_IgnoreChange_When_OwnOrMalformed() throws Exception {
+        //given
+        UdpPostChangeChannel node = open("");
+        UdpPostChangeChannel self = open("127.0.0.1:" + node.localPort());
+        BlockingQueue<PostChange> received = new LinkedBlockingQueue<>();
+        node.subscribe(received::add);
+
+        //when
+        self.publish(PostChange.edit(node.nodeId(), 1, 1, "1800Flowers", "1800Flowers"));
+        try (DatagramSocket socket = new DatagramSocket()) {
+            byte[] garbage = {1, 2, 3};
+            socket.send(new DatagramPacket(garbage, garbage.length, InetAddress.getLoopbackAddress(), node.localPort()));
+        }
+        self.publish(PostChange.refresh(self.nodeId()));
+
+        //then
+        PostChange change = received.poll(10, TimeUnit.SECONDS);
+        assertEquals(self.nodeId(), change.getOrigin());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check nodes on one box share a multicast group over the loopback interface")
+    void should_DeliverChangeToEveryOtherNode_When_TargetIsMulticastGroup() throws Exception {
+        //given
+        int port;
+        try (DatagramSocket socket = new DatagramSocket()) {
+            port = socket.getLocalPort();
+        }
+        String group = "239.255.44.46:" + port;
+        String loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress()).getName();
+        UdpPostChangeChannel first = open("0.0.0.0", port, group, loopback);
+        UdpPostChangeChannel second = open("0.0.0.0", port, group, loopback);
+        UdpPostChangeChannel third = open("0.0.0.0", port, group, loopback);
+        BlockingQueue<PostChange> receivedBySecond = new LinkedBlockingQueue<>();
+        BlockingQueue<PostChange> receivedByThird = new LinkedBlockingQueue<>();
+        BlockingQueue<PostChange> receivedByFirst = new LinkedBlockingQueue<>();
+        first.subscribe(receivedByFirst::add);
+        second.subscribe(receivedBySecond::add);
+        third.subscribe(receivedByThird::add);
+
+        //when
+        first.publish(PostChange.edit(first.nodeId(), 0, 1, "1800Flowers", "1800Flowers"));
+
+        //then
+        assertEquals(first.nodeId(), receivedBySecond.poll(10, TimeUnit.SECONDS).getOrigin());
+        assertEquals(first.nodeId(), receivedByThird.poll(10, TimeUnit.SECONDS).getOrigin());
+        assertNull(receivedByFirst.poll(200, TimeUnit.MILLISECONDS));
+
+    }
+}
@@ -0,0 +1,364 @@
+package com.flowers.codechallenge.cache;
+
+import com.flowers.codechallenge.broadcast.PostChange;
+import com.flowers.codechallenge.broadcast.PostChangeChannel;
+import com.flowers.codechallenge.client.PostsClient;
+import com.flowers.codechallenge.client.UpstreamResponse;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.overlay.OverlayPostStore;
+import com.flowers.codechallenge.overlay.PostOverlayLog;
+import com.flowers.codechallenge.store.ColumnarPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class PostSnapshotCacheTest {
+
+    @InjectMocks
+    PostSnapshotCache postSnapshotCache;
+
+    @Mock
+    PostsClient postsClientMock;
+
+    @TempDir
+    Path directory;
+
+    private static final String LAST_MODIFIED = "Thu, 07 Jul 2022 00:00:00 GMT";
+
+    private final Instant start = Instant.parse("2022-07-07T00:00:00Z");
+
+    private final List<Post> firstPosts = Collections.singletonList(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+
+    private final List<Post> secondPosts = Collections.singletonList(new Post(2, 2, "1800Flowers2", "1800Flowers2"));
+
+    @BeforeEach
+    void setUp() {
+        postSnapshotCache.refreshIntervalMs = 1000;
+        postSnapshotCache.maxStalenessMs = 5000;
+        postSnapshotCache.staleWhileRevalidate = true;
+        postSnapshotCache.clock = Clock.fixed(start, ZoneOffset.UTC);
+    }
+
+    private void advance(long millis) {
+        postSnapshotCache.clock = Clock.offset(postSnapshotCache.clock, Duration.ofMillis(millis));
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a fresh snapshot is served without calling the upstream")
+    void should_ServeFromMemory_When_SnapshotIsFresh() {
+        givenUpstream(Mono.just(firstPosts));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(999);
+        PostSnapshot second = postSnapshotCache.getSnapshot();
+
+        assertSame(first, second);
+        verify(postsClientMock, times(1)).fetchPosts(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a stale snapshot is served while it is revalidated")
+    void should_ServeStaleAndRevalidate_When_SnapshotIsStale() {
+        givenUpstream(Mono.just(firstPosts), Mono.just(secondPosts));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(2000);
+        PostSnapshot stale = postSnapshotCache.getSnapshot();
+        PostSnapshot revalidated = postSnapshotCache.getSnapshot();
+
+        assertAll(
+                () -> assertSame(first, stale),
+                () -> assertEquals(2, revalidated.getPosts().get(0).getId()),
+                () -> assertTrue(revalidated.getVersion() > first.getVersion())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the caller waits for the refresh when stale-while-revalidate is off")
+    void should_RefreshInline_When_StaleWhileRevalidateIsDisabled() {
+        postSnapshotCache.staleWhileRevalidate = false;
+        givenUpstream(Mono.just(firstPosts), Mono.just(secondPosts));
+
+        postSnapshotCache.getSnapshot();
+        advance(2000);
+        PostSnapshot refreshed = postSnapshotCache.getSnapshot();
+
+        assertEquals(2, refreshed.getPosts().get(0).getId());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the snapshot is not served beyond the max staleness")
+    void should_ThrowException_When_SnapshotExceedsMaxStaleness() {
+        givenUpstream(Mono.just(firstPosts), Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)));
+
+        postSnapshotCache.getSnapshot();
+        advance(6000);
+
+        assertThrows(WebClientResponseException.class, () -> postSnapshotCache.getSnapshot());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the snapshot is built in a columnar store when enabled")
+    void should_BuildColumnarStore_When_ColumnarStoreIsEnabled() {
+        postSnapshotCache.columnarStore = true;
+        givenUpstream(Mono.just(firstPosts));
+
+        PostSnapshot snapshot = postSnapshotCache.getSnapshot();
+
+        assertAll(
+                () -> assertTrue(snapshot.getStore() instanceof ColumnarPostStore),
+                () -> assertEquals(firstPosts, snapshot.getPosts()),
+                () -> assertEquals(1, snapshot.uniqueUserCount())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the stale snapshot is served beyond the max staleness while the upstream is unavailable")
+    void should_ServeStale_When_UpstreamIsUnavailable() {
+        postSnapshotCache.serveStaleWhenUnavailable = true;
+        givenUpstream(Mono.just(firstPosts), Mono.error(new UpstreamUnavailableException("Circuit breaker of /posts is open")));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(6000);
+
+        assertSame(first, postSnapshotCache.getSnapshot());
+
+        postSnapshotCache.serveStaleWhenUnavailable = false;
+        assertThrows(UpstreamUnavailableException.class, () -> postSnapshotCache.getSnapshot());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the stale snapshot is served when the refresh fails within the max staleness")
+    void should_ServeStale_When_RefreshFailsWithinMaxStaleness() {
+        postSnapshotCache.staleWhileRevalidate = false;
+        givenUpstream(Mono.just(firstPosts), Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(2000);
+
+        assertSame(first, postSnapshotCache.getSnapshot());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check concurrent refreshes share one upstream fetch")
+    void should_CoalesceRefreshes_When_FetchIsInFlight() {
+        Sinks.One<List<Post>> upstream = Sinks.one();
+        givenUpstream(upstream.asMono());
+
+        CompletableFuture<PostSnapshot> first = postSnapshotCache.refreshAsync();
+        CompletableFuture<PostSnapshot> second = postSnapshotCache.refreshAsync();
+        upstream.tryEmitValue(firstPosts);
+
+        assertAll(
+                () -> assertSame(first, second),
+                () -> assertSame(first.join(), second.join())
+        );
+        verify(postsClientMock, times(1)).fetchPosts(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check cold concurrent callers share one upstream fetch")
+    void should_CoalesceColdCallers_When_CalledConcurrently() throws Exception {
+        int callers = 8;
+        Sinks.One<List<Post>> upstream = Sinks.one();
+        AtomicInteger subscriptions = new AtomicInteger();
+        givenUpstream(upstream.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch ready = new CountDownLatch(callers);
+        List<Future<PostSnapshot>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    return postSnapshotCache.getSnapshot();
+                }));
+            }
+            assertTrue(ready.await(5, TimeUnit.SECONDS));
+            upstream.tryEmitValue(firstPosts);
+
+            PostSnapshot expected = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<PostSnapshot> result : results) {
+                assertSame(expected.getStore(), result.get(5, TimeUnit.SECONDS).getStore());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a failed refresh does not block the next one")
+    void should_AllowNextRefresh_When_FetchFails() {
+        when(postsClientMock.fetchPosts(any(), any(), any()))
+                .thenThrow(WebClientResponseException.create(503, "Service Unavailable", null, null, null))
+                .thenAnswer(invocation -> respond(invocation, Mono.just(firstPosts)));
+
+        assertThrows(WebClientResponseException.class, () -> postSnapshotCache.refresh());
+        assertEquals(1, postSnapshotCache.refresh().getPosts().get(0).getId());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a not modified upstream extends the held snapshot")
+    void should_ReuseSnapshot_When_UpstreamIsNotModified() {
+        givenUpstream(Mono.just(firstPosts), Mono.empty());
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(2000);
+        PostSnapshot revalidated = postSnapshotCache.refresh();
+
+        assertAll(
+                () -> assertSame(first.getStore(), revalidated.getStore()),
+                () -> assertSame(first.getPostsPerUser(), revalidated.getPostsPerUser()),
+                () -> assertEquals(first.getVersion(), revalidated.getVersion()),
+                () -> assertEquals(2000, revalidated.getFetchedAt() - first.getFetchedAt())
+        );
+        verify(postsClientMock).fetchPosts(isNull(), isNull(), any());
+        verify(postsClientMock).fetchPosts(eq("\"v1\""), eq(LAST_MODIFIED), any());
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check overlay edits are merged over a new snapshot")
+    void should_MergeOverlayEdits_When_OverlayLogIsEnabled() {
+        PostOverlayLog overlayLogMock = mock(PostOverlayLog.class);
+        postSnapshotCache.overlayLog = overlayLogMock;
+        givenUpstream(Mono.just(firstPosts));
+
+        PostSnapshot snapshot = postSnapshotCache.getSnapshot();
+
+        assertTrue(snapshot.getStore() instanceof OverlayPostStore);
+        verify(overlayLogMock).applyTo(argThat(store -> !(store instanceof OverlayPostStore)));
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check an edit made while the overlay is merged reaches the new snapshot")
+    void should_KeepEdit_When_PostIsEditedWhileOverlayIsMerged() throws IOException {
+        PostOverlayLog overlayLog = spy(openOverlayLog());
+        postSnapshotCache.overlayLog = overlayLog;
+        postSnapshotCache.staleWhileRevalidate = false;
+        givenUpstream(Mono.just(firstPosts), Mono.just(firstPosts));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        doAnswer(invocation -> {
+            Object applied = invocation.callRealMethod();
+            first.updatePost(1L, new Post(0, 0, "edited", "edited"));
+            return applied;
+        }).when(overlayLog).applyTo(any(PostStore.class));
+        advance(6000);
+        PostSnapshot second = postSnapshotCache.getSnapshot();
+        overlayLog.close();
+
+        assertAll(
+                () -> assertNotSame(first, second),
+                () -> assertEquals("edited", second.getPosts().get(0).getTitle())
+        );
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check an edit made through a superseded snapshot reaches the new snapshot")
+    void should_PassEditOn_When_SnapshotIsSuperseded() throws IOException {
+        PostOverlayLog overlayLog = openOverlayLog();
+        postSnapshotCache.overlayLog = overlayLog;
+        postSnapshotCache.staleWhileRevalidate = false;
+        givenUpstream(Mono.just(firstPosts), Mono.just(firstPosts));
+
+        PostSnapshot first = postSnapshotCache.getSnapshot();
+        advance(6000);
+        PostSnapshot second = postSnapshotCache.getSnapshot();
+        first.updatePost(1L, new Post(0, 0, "edited", "edited"));
+        overlayLog.close();
+
+        assertAll(
+                () -> assertNotSame(first, second),
+                () -> assertEquals("edited", second.getPosts().get(0).getTitle()),
+                () -> assertEquals(1, overlayLog.size())
+        );
+    }
+
+
+    private PostOverlayLog openOverlayLog() throws IOException {
+        PostOverlayLog overlayLog = new PostOverlayLog();
+        ReflectionTestUtils.setField(overlayLog, "path", directory.resolve("posts-overlay.log").toString());
+        ReflectionTestUtils.setField(overlayLog, "initialSizeBytes", 256);
+        overlayLog.open();
+        return overlayLog;
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check only a new snapshot is announced to the other nodes")
+    void should_BroadcastRefresh_When_SnapshotIsModified() {
+        PostChangeChannel changeChannelMock = mock(PostChangeChannel.class);
+        when(changeChannelMock.nodeId()).thenReturn(7L);
+        postSnapshotCache.changeChannel = changeChannelMock;
+        givenUpstream(Mono.just(firstPosts), Mono.empty());
+
+        postSnapshotCache.getSnapshot();
+        advance(2000);
+        postSnapshotCache.refresh();
+
+        verify(changeChannelMock, times(1)).publish(argThat(change -> change.getType() == PostChange.Type.REFRESH && change.getOrigin() == 7L));
+        assertNotNull(postSnapshotCache.getCurrent());
+    }
+
+
+    /**
+     * Stubs the upstream with one response per call, repeating the last one.
+     * A Mono completing empty stands for a 304 Not Modified answer.
+     */
+    @SafeVarargs
+    private void givenUpstream(Mono<List<Post>>... responses) {
+        AtomicInteger calls = new AtomicInteger();
+        when(postsClientMock.fetchPosts(any(), any(), any())).thenAnswer(invocation ->
+                respond(invocation, responses[Math.min(calls.getAndIncrement(), responses.length - 1)]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<UpstreamResponse<Object>> respond(InvocationOnMock invocation, Mono<List<Post>> response) {
+        Function<Flux<Post>, Mono<Object>> reader = invocation.getArgument(2);
+        return response
+                .flatMap(posts -> reader.apply(Flux.fromIterable(posts))
+                        .map(body -> UpstreamResponse.modified(body, "\"v" + posts.size() + "\"", LAST_MODIFIED)))
+                .defaultIfEmpty(UpstreamResponse.notModified(null, null));
+    }
+}
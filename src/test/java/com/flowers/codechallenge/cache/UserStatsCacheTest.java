@@ -0,0 +1,107 @@
+package com.flowers.codechallenge.cache;
+
+import com.flowers.codechallenge.dto.PostCountBucket;
+import com.flowers.codechallenge.dto.UserPostCount;
+import com.flowers.codechallenge.dto.UserStats;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.model.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class UserStatsCacheTest {
+
+    private final UserStatsCache userStatsCache = new UserStatsCache();
+
+    private final List<Post> posts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userStatsCache.topUsersMax = 3;
+        int[] userIds = {1, 2, 2, 3, 3, 3, 4, 4, 5, 5};
+        for (int i = 0; i < userIds.length; i++) {
+            posts.add(new Post(userIds[i], i + 1, "1800Flowers" + i, "1800Flowers" + i));
+        }
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check the histogram and the most active users")
+    void should_ReturnHistogramAndTopUsers_When_getCalls() {
+        //when
+        UserStats stats = userStatsCache.get(new PostSnapshot(1L, posts, 0L));
+
+        //then
+        assertAll(
+                () -> assertEquals(5, stats.getUserCount()),
+                () -> assertEquals(10, stats.getPostCount()),
+                () -> assertEquals(Arrays.asList(new PostCountBucket(1, 1), new PostCountBucket(2, 3), new PostCountBucket(3, 1)),
+                        stats.getHistogram()),
+                () -> assertEquals(Arrays.asList(new UserPostCount(3, 3), new UserPostCount(2, 2), new UserPostCount(4, 2)),
+                        stats.getTopUsers())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the stats are computed once per snapshot")
+    void should_ReuseStats_When_SnapshotIsRevalidated() {
+        //given
+        PostSnapshot snapshot = new PostSnapshot(1L, posts, 0L);
+
+        //when
+        UserStats first = userStatsCache.get(snapshot);
+        UserStats revalidated = userStatsCache.get(snapshot.revalidated(1000L));
+        UserStats all = userStatsCache.get(snapshot, 3);
+        UserStats top = userStatsCache.get(snapshot, 1);
+        UserStats replaced = userStatsCache.get(new PostSnapshot(2L, posts, 0L));
+
+        //then
+        assertAll(
+                () -> assertSame(first, revalidated),
+                () -> assertSame(first, all),
+                () -> assertEquals(Arrays.asList(new UserPostCount(3, 3)), top.getTopUsers()),
+                () -> assertNotSame(first, replaced),
+                () -> assertEquals(first, replaced)
+        );
+        assertThrows(InvalidRequestParameterException.class, () -> userStatsCache.get(snapshot, -1));
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the top users match a full sort")
+    void should_MatchFullSort_When_ManyUsersArePresent() {
+        //given
+        Random random = new Random(7);
+        List<Post> manyPosts = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            manyPosts.add(new Post(random.nextInt(2_000), i, "1800Flowers", "1800Flowers"));
+        }
+        userStatsCache.topUsersMax = 25;
+
+        //when
+        UserStats stats = userStatsCache.get(new PostSnapshot(1L, manyPosts, 0L));
+
+        //then
+        List<UserPostCount> expected = manyPosts.stream()
+                .collect(Collectors.groupingBy(Post::getUserId, Collectors.counting()))
+                .entrySet().stream()
+                .map(entry -> new UserPostCount(entry.getKey(), entry.getValue().intValue()))
+                .sorted((a, b) -> a.getPostCount() != b.getPostCount()
+                        ? Integer.compare(b.getPostCount(), a.getPostCount())
+                        : Integer.compare(a.getUserId(), b.getUserId()))
+                .limit(25)
+                .collect(Collectors.toList());
+        assertEquals(expected, stats.getTopUsers());
+
+    }
+}
@@ -0,0 +1,176 @@
+package com.flowers.codechallenge.client;
+
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.exception.PostNotFoundException;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The upstream is stubbed with a latency and a status per path, so that
+ * slow, failing and missing legs can be simulated one at a time.
+ */
+class PostDetailsFetcherTest {
+
+    private static final String POST = "{\"userId\":3,\"id\":4,\"title\":\"1800Flowers\",\"body\":\"1800Flowers\"}";
+
+    private static final String USER = "{\"id\":3,\"name\":\"Flowers\",\"username\":\"flowers\",\"email\":\"a@b.c\","
+            + "\"address\":{\"city\":\"Carle Place\"},\"phone\":\"1-800\",\"website\":\"1800flowers.com\"}";
+
+    private static final String COMMENTS = "[{\"postId\":4,\"id\":1,\"name\":\"first\",\"email\":\"a@b.c\",\"body\":\"1800Flowers\"},"
+            + "{\"postId\":4,\"id\":2,\"name\":\"second\",\"email\":\"a@b.c\",\"body\":\"1800Flowers\"}]";
+
+    private final PostDetailsFetcher fetcher = new PostDetailsFetcher();
+
+    private final Map<String, Long> latencyMs = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> status = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> receivedAtNanos = new ConcurrentHashMap<>();
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/posts/{id}/comments", (request, response) -> respond("comments", COMMENTS, response))
+                        .get("/posts/{id}", (request, response) -> respond("post", POST, response))
+                        .get("/users/{id}", (request, response) -> respond("user", USER, response)))
+                .bindNow();
+
+        PostsClient postsClient = new PostsClient();
+        postsClient.webClient = WebClient.create("http://127.0.0.1:" + server.port());
+        postsClient.upstreamPolicies = new UpstreamPolicies();
+        ReflectionTestUtils.setField(postsClient.upstreamPolicies, "environment", new MockEnvironment());
+
+        fetcher.postsClient = postsClient;
+        fetcher.postTimeoutMs = 5000;
+        fetcher.userTimeoutMs = 5000;
+        fetcher.commentsTimeoutMs = 5000;
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(String leg, String body, HttpServerResponse response) {
+        receivedAtNanos.put(leg, System.nanoTime());
+        return Mono.delay(Duration.ofMillis(latencyMs.getOrDefault(leg, 0L)))
+                .then(Mono.defer(() -> {
+                    int code = status.getOrDefault(leg, 200);
+                    if (code != 200) {
+                        return response.status(code).send().then();
+                    }
+                    return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just(body))
+                            .then();
+                }));
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check the Post is joined with its author and comments")
+    void should_JoinPostUserAndComments_When_AllLegsSucceed() {
+        //when
+        PostDetails details = fetcher.fetch(4).block();
+
+        //then
+        assertAll(
+                () -> assertEquals(4, details.getPost().getId()),
+                () -> assertEquals(3, details.getUser().getId()),
+                () -> assertEquals("1800flowers.com", details.getUser().getWebsite()),
+                () -> assertEquals(2, details.getComments().size()),
+                () -> assertEquals(4, details.getComments().get(1).getPostId()),
+                () -> assertNull(details.getMissing())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the comments are requested before the Post is returned")
+    void should_RequestCommentsConcurrently_When_PostIsSlow() {
+        //given
+        latencyMs.put("post", 300L);
+
+        //when
+        PostDetails details = fetcher.fetch(4).block();
+
+        //then
+        long postAnsweredAt = receivedAtNanos.get("post") + Duration.ofMillis(300).toNanos();
+        assertAll(
+                () -> assertNull(details.getMissing()),
+                () -> assertTrue(receivedAtNanos.get("comments") < postAnsweredAt),
+                () -> assertTrue(receivedAtNanos.get("user") >= postAnsweredAt)
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a failing or late optional leg is left out and named")
+    void should_ReturnPartialDetails_When_OptionalLegFailsOrTimesOut() {
+        //given
+        status.put("user", 503);
+        latencyMs.put("comments", 500L);
+        fetcher.commentsTimeoutMs = 100;
+
+        //when
+        PostDetails details = fetcher.fetch(4).block();
+
+        //then
+        assertAll(
+                () -> assertEquals(4, details.getPost().getId()),
+                () -> assertNull(details.getUser()),
+                () -> assertNull(details.getComments()),
+                () -> assertEquals(Arrays.asList(PostDetails.USER, PostDetails.COMMENTS), details.getMissing())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a missing or late Post fails the whole read")
+    void should_ThrowException_When_PostIsMissingOrLate() {
+        //given
+        status.put("post", 404);
+
+        //then
+        StepVerifier.create(fetcher.fetch(4))
+                .expectError(PostNotFoundException.class)
+                .verify();
+
+        status.put("post", 200);
+        latencyMs.put("post", 500L);
+        fetcher.postTimeoutMs = 100;
+        StepVerifier.create(fetcher.fetch(4))
+                .expectError(UpstreamUnavailableException.class)
+                .verify();
+
+        StepVerifier.create(fetcher.fetch(0))
+                .expectError(InvalidRequestParameterException.class)
+                .verify();
+
+    }
+}
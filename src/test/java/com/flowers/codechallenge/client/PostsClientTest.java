@@ -0,0 +1,420 @@
+package com.flowers.codechallenge.client;
+
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.resilience.UpstreamPolicies;
+import com.flowers.codechallenge.util.WireFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PostsClientTest {
+
+    private static final String ETAG = "W/\"6b80-Ybsq/K6GwwqrYkAsFxqDXGC7DoM\"";
+
+    private static final String LAST_MODIFIED = "Thu, 07 Jul 2022 00:00:00 GMT";
+
+    private static final Function<Flux<Post>, Mono<List<Post>>> TO_LIST = Flux::collectList;
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final ObjectMapper SMILE_MAPPER = Jackson2ObjectMapperBuilder.smile().build();
+
+    private final PostsClient postsClient = new PostsClient();
+
+    private final AtomicReference<String> payload = new AtomicReference<>();
+
+    private final AtomicReference<String> receivedIfNoneMatch = new AtomicReference<>();
+
+    private final AtomicReference<String> receivedIfModifiedSince = new AtomicReference<>();
+
+    private final AtomicReference<String> receivedAccept = new AtomicReference<>();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    private final AtomicInteger pageRequests = new AtomicInteger();
+
+    private volatile int status = 200;
+
+    private volatile int size = 4;
+
+    private volatile boolean sendTotalCount = true;
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        payload.set(payload(4));
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/posts", (request, response) -> {
+                    receivedIfNoneMatch.set(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH));
+                    receivedIfModifiedSince.set(request.requestHeaders().get(HttpHeaders.IF_MODIFIED_SINCE));
+                    receivedAccept.set(request.requestHeaders().get(HttpHeaders.ACCEPT));
+                    if (status != 200) {
+                        return response.status(status).send();
+                    }
+                    Map<String, List<String>> query = new QueryStringDecoder(request.uri()).parameters();
+                    if (query.containsKey("_start")) {
+                        pageRequests.incrementAndGet();
+                        int start = Integer.parseInt(query.get("_start").get(0));
+                        int limit = Integer.parseInt(query.get("_limit").get(0));
+                        String page = payload(start + 1, Math.min(start + limit, size));
+                        if (sendTotalCount) {
+                            response.header("X-Total-Count", String.valueOf(size));
+                        }
+                        return response
+                                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .header(HttpHeaders.ETAG, "W/\"" + start + "-" + page.hashCode() + "\"")
+                                .sendString(Mono.just(page));
+                    }
+                    if (ETAG.equals(receivedIfNoneMatch.get())) {
+                        return response.status(304).header(HttpHeaders.ETAG, ETAG).send();
+                    }
+                    if (receivedAccept.get() != null && receivedAccept.get().startsWith(WireFormats.APPLICATION_SMILE_VALUE)) {
+                        return response
+                                .header(HttpHeaders.CONTENT_TYPE, WireFormats.APPLICATION_SMILE_VALUE)
+                                .sendByteArray(Mono.fromCallable(() -> SMILE_MAPPER.writeValueAsBytes(JSON_MAPPER.readTree(payload.get()))));
+                    }
+                    return response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .header(HttpHeaders.ETAG, ETAG)
+                            .header(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED)
+                            .sendString(Mono.just(payload.get()));
+                }))
+                .bindNow();
+        postsClient.webClient = WebClient.create("http://127.0.0.1:" + server.port());
+        postsClient.streamingDecode = true;
+        postsClient.upstreamPolicies = new UpstreamPolicies();
+        ReflectionTestUtils.setField(postsClient.upstreamPolicies, "environment", environment);
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+        Metrics.removeRegistry(registry);
+    }
+
+    private static String payload(int size) {
+        return payload(1, size);
+    }
+
+    private static String payload(int first, int last) {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = first; i <= last; i++) {
+            payload.append(i == first ? "" : ",")
+                    .append("{\"userId\":").append((i + 1) / 2)
+                    .append(",\"id\":").append(i)
+                    .append(",\"title\":\"1800Flowers").append(i)
+                    .append("\",\"body\":\"1800Flowers").append(i).append("\"}");
+        }
+        return payload.append("]").toString();
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check all posts are returned or not")
+    void should_ReturnAllPosts_When_fetchPostsCalls() {
+        //when
+        UpstreamResponse<List<Post>> response = postsClient.fetchPosts(null, null, TO_LIST).block();
+
+        //then
+        List<Post> actualPosts = response.getBody();
+        assertAll(
+                () -> assertFalse(response.isNotModified()),
+                () -> assertEquals(4, actualPosts.size()),
+                () -> assertEquals(1, actualPosts.get(1).getUserId()),
+                () -> assertEquals(2, actualPosts.get(1).getId()),
+                () -> assertEquals("1800Flowers2", actualPosts.get(1).getTitle()),
+                () -> assertEquals("1800Flowers2", actualPosts.get(1).getBody()),
+                () -> assertEquals(ETAG, response.getEtag()),
+                () -> assertEquals(LAST_MODIFIED, response.getLastModified())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check buffered decode returns the same posts")
+    void should_ReturnAllPosts_When_StreamingDecodeIsDisabled() {
+        //given
+        postsClient.streamingDecode = false;
+
+        //when
+        List<Post> actualPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+
+        //then
+        assertEquals(postsClient.fetchPosts(null, null, TO_LIST).block().getBody(), actualPosts);
+        assertEquals(4, actualPosts.size());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the application does not start with a range it cannot fetch")
+    void should_ThrowException_When_RangeIsNotPositive() {
+        //given
+        postsClient.rangePageSize = 0;
+        postsClient.rangeParallelism = 4;
+
+        //when
+        IllegalStateException pageSizeException = assertThrows(IllegalStateException.class, () -> postsClient.validate());
+        postsClient.rangePageSize = 100;
+        postsClient.rangeParallelism = -1;
+        IllegalStateException parallelismException = assertThrows(IllegalStateException.class, () -> postsClient.validate());
+
+        //then
+        assertAll(
+                () -> assertTrue(pageSizeException.getMessage().contains("postsUpstreamRangePageSize")),
+                () -> assertTrue(parallelismException.getMessage().contains("postsUpstreamRangeParallelism"))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the application does not start with more pages at a time than the bulkhead admits")
+    void should_ThrowException_When_RangeParallelismExceedsBulkhead() {
+        //given
+        environment.setProperty("postsUpstreamBulkheadMaxConcurrentCalls.posts", "3");
+        postsClient.rangedFetch = true;
+        postsClient.rangePageSize = 100;
+        postsClient.rangeParallelism = 4;
+
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> postsClient.validate());
+        postsClient.rangeParallelism = 3;
+
+        //then
+        assertAll(
+                () -> assertTrue(exception.getMessage().contains("postsUpstreamRangeParallelism")),
+                () -> assertDoesNotThrow(() -> postsClient.validate())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check ranged fetch merges the pages into the single-shot list")
+    void should_ReturnSamePosts_When_RangedFetchIsEnabled() {
+        //given
+        size = 1003;
+        payload.set(payload(size));
+        List<Post> expectedPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+        postsClient.rangedFetch = true;
+        postsClient.rangePageSize = 100;
+        postsClient.rangeParallelism = 4;
+
+        //when
+        UpstreamResponse<List<Post>> response = postsClient.fetchPosts(null, null, TO_LIST).block();
+
+        //then
+        assertAll(
+                () -> assertFalse(response.isNotModified()),
+                () -> assertEquals(expectedPosts, response.getBody()),
+                () -> assertEquals(11, pageRequests.get()),
+                () -> assertNotNull(response.getEtag())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check ranged fetch reads until a short page without a total count")
+    void should_ReturnSamePosts_When_RangedFetchHasNoTotalCount() {
+        //given
+        size = 400;
+        payload.set(payload(size));
+        sendTotalCount = false;
+        List<Post> expectedPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+        postsClient.rangedFetch = true;
+        postsClient.rangePageSize = 100;
+        postsClient.rangeParallelism = 3;
+
+        //when
+        List<Post> actualPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+
+        //then
+        assertAll(
+                () -> assertEquals(expectedPosts, actualPosts),
+                () -> assertTrue(pageRequests.get() >= 5 && pageRequests.get() <= 5 + 2, pageRequests.get() + " page requests")
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check ranged fetch reports unchanged pages as not modified")
+    void should_ReturnNotModified_When_RangedPagesAreUnchanged() {
+        //given
+        size = 250;
+        postsClient.rangedFetch = true;
+        postsClient.rangePageSize = 100;
+        postsClient.rangeParallelism = 2;
+        String etag = postsClient.fetchPosts(null, null, TO_LIST).block().getEtag();
+
+        //when
+        UpstreamResponse<List<Post>> unchanged = postsClient.fetchPosts(etag, null, TO_LIST).block();
+        size = 251;
+        UpstreamResponse<List<Post>> changed = postsClient.fetchPosts(etag, null, TO_LIST).block();
+
+        //then
+        assertAll(
+                () -> assertTrue(unchanged.isNotModified()),
+                () -> assertEquals(etag, unchanged.getEtag()),
+                () -> assertFalse(changed.isNotModified()),
+                () -> assertEquals(251, changed.getBody().size())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check Smile is requested and decoded when enabled")
+    void should_DecodeSmile_When_AcceptSmileIsEnabled() {
+        //given
+        List<Post> expectedPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+        postsClient.acceptSmile = true;
+
+        //when
+        List<Post> actualPosts = postsClient.fetchPosts(null, null, TO_LIST).block().getBody();
+
+        //then
+        assertAll(
+                () -> assertTrue(receivedAccept.get().startsWith(WireFormats.APPLICATION_SMILE_VALUE)),
+                () -> assertEquals(4, actualPosts.size()),
+                () -> assertEquals(expectedPosts, actualPosts)
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check whether the exception throws or not")
+    void should_ThrowException_When_PostServiceIsUnavailable() {
+        //given
+        status = 503;
+
+        //then
+        StepVerifier.create(postsClient.fetchPosts(null, null, TO_LIST))
+                .expectErrorMatches(ex -> ex instanceof WebClientResponseException
+                        && ((WebClientResponseException) ex).getRawStatusCode() == 503)
+                .verify();
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check fetches fail fast once the circuit breaker opens")
+    void should_FailFast_When_CircuitBreakerIsOpen() {
+        //given
+        environment.setProperty("postsUpstreamCircuitBreakerMinimumCalls.posts", "2");
+        status = 503;
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(postsClient.fetchPosts(null, null, TO_LIST))
+                    .expectError(WebClientResponseException.class)
+                    .verify();
+        }
+        status = 200;
+
+        //then
+        StepVerifier.create(postsClient.fetchPosts(null, null, TO_LIST))
+                .expectError(UpstreamUnavailableException.class)
+                .verify();
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check validators are sent and a 304 is not decoded")
+    void should_ReturnNotModified_When_ValidatorsMatch() {
+        //when
+        UpstreamResponse<List<Post>> response = postsClient.fetchPosts(ETAG, LAST_MODIFIED, flux -> {
+            fail("A not modified body must not be read");
+            return flux.collectList();
+        }).block();
+
+        //then
+        assertAll(
+                () -> assertTrue(response.isNotModified()),
+                () -> assertNull(response.getBody()),
+                () -> assertEquals(ETAG, receivedIfNoneMatch.get()),
+                () -> assertEquals(LAST_MODIFIED, receivedIfModifiedSince.get())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check no validators are sent without a held copy")
+    void should_NotSendValidators_When_NoneAreHeld() {
+        //when
+        postsClient.fetchPosts(null, null, TO_LIST).block();
+
+        //then
+        assertNull(receivedIfNoneMatch.get());
+        assertNull(receivedIfModifiedSince.get());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a payload above the codec buffer limit is streamed")
+    void should_StreamPayload_When_PayloadExceedsCodecBufferLimit() {
+        //given
+        int size = 20_000;
+        payload.set(payload(size));
+
+        //then
+        StepVerifier.create(postsClient.fetchPosts(null, null, Flux::count))
+                .expectNextMatches(response -> response.getBody() == size)
+                .verifyComplete();
+
+        postsClient.streamingDecode = false;
+        StepVerifier.create(postsClient.fetchPosts(null, null, Flux::count))
+                .expectError(DataBufferLimitException.class)
+                .verify();
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check fetches are timed by outcome and payloads are measured")
+    void should_RecordMetrics_When_fetchPostsCalls() {
+        //when
+        postsClient.fetchPosts(null, null, TO_LIST).block();
+        postsClient.fetchPosts(ETAG, null, TO_LIST).block();
+        status = 503;
+        StepVerifier.create(postsClient.fetchPosts(null, null, TO_LIST)).expectError().verify();
+
+        //then
+        assertAll(
+                () -> assertEquals(1, registry.get(PostsClient.FETCH_TIMER).tag("outcome", "modified").timer().count()),
+                () -> assertEquals(1, registry.get(PostsClient.FETCH_TIMER).tag("outcome", "not_modified").timer().count()),
+                () -> assertEquals(1, registry.get(PostsClient.FETCH_TIMER).tag("outcome", "error").timer().count()),
+                () -> assertEquals(1, registry.get(PostsClient.DECODE_TIMER).timer().count()),
+                () -> assertEquals(4, registry.get(PostsClient.PAYLOAD_POSTS).summary().totalAmount()),
+                () -> assertEquals(payload.get().length(), registry.get(PostsClient.PAYLOAD_BYTES).summary().totalAmount())
+        );
+
+    }
+}
@@ -1,24 +1,48 @@
 package com.flowers.codechallenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostCountBucket;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.dto.UserPostCount;
+import com.flowers.codechallenge.dto.UserStats;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.exception.PostNotFoundException;
+import com.flowers.codechallenge.exception.PostVersionConflictException;
+import com.flowers.codechallenge.model.Comment;
 import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
 import com.flowers.codechallenge.service.impl.PostServiceImpl;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.util.WireFormats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -54,6 +78,7 @@ public class PostControllerTest {
     void should_ReturnUniqueUserIdCount_When_GetRESTEndpoint_Calls() throws Exception {
         Long expectedUniqueUserCount = 5l;
 
+        given(postService.getSnapshotVersion()).willReturn(1L);
         given(postService.getUniqueUserCount()).willReturn(expectedUniqueUserCount);
 
         this.mockMvc.perform( MockMvcRequestBuilders
@@ -65,6 +90,49 @@ public class PostControllerTest {
 
     }
 
+    @Test
+    void should_ReturnCachedBodyAndNotModified_When_SnapshotVersionIsUnchanged() throws Exception {
+        given(postService.getSnapshotVersion()).willReturn(4L);
+        given(postService.getUniqueUserCount()).willReturn(7L);
+
+        MvcResult result = this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().string("7"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .header("If-None-Match", etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+
+        verify(postService, times(1)).getUniqueUserCount();
+
+        given(postService.getSnapshotVersion()).willReturn(5L);
+        given(postService.getUniqueUserCount()).willReturn(8L);
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .header("If-None-Match", etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("8"));
+
+    }
+
     @Test
     void should_ReturnUpdatedPostsList_When_PutRESTEndpoint_Calls() throws Exception {
         Long index = 4L;
@@ -80,7 +148,7 @@ public class PostControllerTest {
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
         Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -96,6 +164,114 @@ public class PostControllerTest {
     }
 
 
+    @Test
+    void should_ReadSmileAndWriteCbor_When_PutRESTEndpoint_Calls() throws Exception {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        given(postService.getUpdatedPost(4L, post, null)).willReturn(new VersionedPost(post, 1L));
+
+        MvcResult result = this.mockMvc.perform( MockMvcRequestBuilders
+                        .put("/api/posts/{index}", 4L)
+                        .content(smileMapper.writeValueAsBytes(post))
+                        .contentType(WireFormats.APPLICATION_SMILE)
+                        .accept(MediaType.APPLICATION_CBOR))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                        .andReturn();
+
+        assertEquals(post, cborMapper.readValue(result.getResponse().getContentAsByteArray(), Post.class));
+    }
+
+    @Test
+    void should_ReturnCachedBodyPerFormat_When_AcceptHeaderDiffers() throws Exception {
+        given(postService.getSnapshotVersion()).willReturn(6L);
+        given(postService.getUniqueUserCount()).willReturn(9L);
+
+        MvcResult smile = this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .accept(WireFormats.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WireFormats.APPLICATION_SMILE))
+                .andReturn();
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/uniqueUserCount")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("9"))
+                .andExpect(header().string("ETag", not(smile.getResponse().getHeader("ETag"))));
+
+        assertEquals(9L, Jackson2ObjectMapperBuilder.smile().build().readValue(smile.getResponse().getContentAsByteArray(), Long.class));
+    }
+
+
+    @Test
+    void should_ReturnPostWithETag_When_GetPostRESTEndpoint_Calls() throws Exception {
+        given(postService.getPost(4L)).willReturn(new VersionedPost(post, 7L));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/{index}", 4L)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("ETag", "\"7\""))
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(4));
+    }
+
+    @Test
+    void should_ThrowPreconditionFailed_When_IfMatchIsStale() throws Exception {
+        given(postService.getUpdatedPost(4L, post, "\"7\""))
+                .willThrow(new PostVersionConflictException("Post at index 4 has version \"8\"", "\"8\""));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .put("/api/posts/{index}", 4L)
+                        .header("If-Match", "\"7\"")
+                        .content(objectMapper.writeValueAsString(post))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isPreconditionFailed())
+                        .andExpect(header().string("ETag", "\"8\""))
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value(412));
+    }
+
+
+    @Test
+    void should_ReturnPartialPostDetails_When_FullPostIsRequested() throws Exception {
+        given(postService.getPostDetails(4)).willReturn(PostDetails.builder()
+                .post(post)
+                .comments(Arrays.asList(new Comment(4, 1, "name", "a@b.c", "1800Flowers")))
+                .missing(Arrays.asList(PostDetails.USER))
+                .build());
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/{id}/full", 4)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.post.id").value(4))
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.user").doesNotExist())
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.comments[0].postId").value(4))
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value("user"));
+    }
+
+    @Test
+    void should_ThrowNotFound_When_FullPostDoesNotExist() throws Exception {
+        given(postService.getPostDetails(999)).willThrow(new PostNotFoundException("Post 999 does not exist"));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/{id}/full", 999)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isNotFound())
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value(404));
+    }
+
+
     @Test
     void should_ThrowMethodNotAllowedException() throws Exception {
         Long index = 4L;
@@ -103,7 +279,7 @@ public class PostControllerTest {
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .post("/api/posts/{index}", index)
@@ -121,7 +297,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -139,7 +315,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -157,7 +333,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willThrow(ArrayIndexOutOfBoundsException.class);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willThrow(ArrayIndexOutOfBoundsException.class);
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -175,7 +351,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts1/{index}", index)
@@ -193,7 +369,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -211,7 +387,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willThrow(WebClientResponseException.class);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willThrow(WebClientResponseException.class);
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -230,7 +406,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willThrow(MethodArgumentTypeMismatchException.class);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willThrow(MethodArgumentTypeMismatchException.class);
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", mismatchedType)
@@ -248,7 +424,7 @@ public class PostControllerTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        given(postService.getUpdatedPost(index, expectedUpdatedPost)).willReturn(this.post);
+        given(postService.getUpdatedPost(index, expectedUpdatedPost, null)).willReturn(new VersionedPost(this.post, 1L));
 
         this.mockMvc.perform( MockMvcRequestBuilders
                         .put("/api/posts/{index}", index)
@@ -260,4 +436,193 @@ public class PostControllerTest {
 
     }
 
+    @Test
+    void should_ReturnResultPerEdit_When_PostBatchRESTEndpoint_Calls() throws Exception {
+        List<PostEdit> edits = Arrays.asList(
+                new PostEdit(4L, "1800Flowers", "1800Flowers"),
+                new PostEdit(9L, "1800Flowers", "1800Flowers"));
+
+        List<PostEditResult> results = Arrays.asList(
+                PostEditResult.builder().index(4L).statusCode(200).status("OK").post(this.post).build(),
+                PostEditResult.builder().index(9L).statusCode(400).status("Bad Request").error("Requested array index is out of range!!").build());
+
+        given(postService.getUpdatedPosts(edits)).willReturn(results);
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .post("/api/posts/batch")
+                        .content(objectMapper.writeValueAsString(edits))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(2))
+                        .andExpect(jsonPath("$[0].statusCode").value(200))
+                        .andExpect(jsonPath("$[0].post.title").value("1800Flowers"))
+                        .andExpect(jsonPath("$[1].statusCode").value(400))
+                        .andExpect(jsonPath("$[1].post").doesNotExist());
+
+    }
+
+    @Test
+    void should_ThrowHttpMessageNotReadableException_When_BatchIsNotAnArray() throws Exception {
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .post("/api/posts/batch")
+                        .content(objectMapper.writeValueAsString(this.post))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+
+    }
+
+    @Test
+    void should_ReturnPostPage_When_GetPostsRESTEndpoint_Calls() throws Exception {
+        PostPage postPage = PostPage.builder().offset(1).limit(2).total(4).nextCursor("cDoz").posts(this.posts.subList(1, 3)).build();
+
+        given(postService.getPostPage(1, 2, null)).willReturn(postPage);
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts")
+                        .param("offset", "1")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.total").value(4))
+                        .andExpect(jsonPath("$.nextCursor").value("cDoz"))
+                        .andExpect(jsonPath("$.posts.length()").value(2))
+                        .andExpect(jsonPath("$.posts[0].id").value(2));
+
+    }
+
+    @Test
+    void should_StreamPostsAsNdjson_When_GetPostsRESTEndpoint_Calls() throws Exception {
+        given(postService.getPosts(0, null)).willReturn(this.posts);
+
+        MvcResult result = this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        String[] lines = this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(4, lines.length);
+        assertEquals(this.posts.get(3), objectMapper.readValue(lines[3], Post.class));
+
+    }
+
+    @Test
+    void should_ThrowBadRequest_When_PageRangeIsInvalid() throws Exception {
+        given(postService.getPostPage(-1, null, null)).willThrow(new InvalidRequestParameterException("Property 'offset' should not be negative !!"));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts")
+                        .param("offset", "-1")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.reason").value("Property 'offset' should not be negative !!"));
+
+    }
+
+    @Test
+    void should_ThrowInternalServerError_When_IllegalArgumentIsNotAboutRequest() throws Exception {
+        given(postService.getPostPage(null, null, null)).willThrow(new IllegalArgumentException("Illegal initial capacity: -1"));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isInternalServerError())
+                        .andExpect(jsonPath("$.reason").value("Internal server error!!"));
+
+    }
+
+    @Test
+    void should_ReturnUserStats_When_GetUserStatsRESTEndpoint_Calls() throws Exception {
+        UserStats userStats = UserStats.builder()
+                .userCount(3)
+                .postCount(4)
+                .histogram(Arrays.asList(new PostCountBucket(1, 2), new PostCountBucket(2, 1)))
+                .topUsers(Arrays.asList(new UserPostCount(1, 2)))
+                .build();
+
+        given(postService.getSnapshotVersion()).willReturn(3L);
+        given(postService.getUserStats(1)).willReturn(userStats);
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/userStats")
+                        .param("top", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.userCount").value(3))
+                        .andExpect(jsonPath("$.histogram[1].postCount").value(2))
+                        .andExpect(jsonPath("$.histogram[1].userCount").value(1))
+                        .andExpect(jsonPath("$.topUsers[0].userId").value(1));
+
+    }
+
+    @Test
+    void should_ReturnMatchingPosts_When_SearchRESTEndpoint_Calls() throws Exception {
+        given(postService.searchPosts("1800Flowers roses", SearchOperator.OR, 5)).willReturn(this.posts.subList(0, 2));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/search")
+                        .param("q", "1800Flowers roses")
+                        .param("op", "OR")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(2))
+                        .andExpect(jsonPath("$[1].id").value(2));
+
+    }
+
+    @Test
+    void should_ThrowBadRequest_When_SearchQueryIsMissing() throws Exception {
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/search")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.reason").value("Request parameter 'q' is missing!!"));
+
+        this.mockMvc.perform( MockMvcRequestBuilders
+                        .get("/api/posts/search")
+                        .param("q", "roses")
+                        .param("op", "XOR")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isBadRequest());
+
+    }
+
+    @Test
+    void should_CountError_When_UpstreamIsUnavailable() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            given(postService.getSnapshotVersion()).willReturn(2L);
+            given(postService.getUniqueUserCount()).willThrow(new WebClientResponseException(503, "Service Unavailable", null, null, null));
+
+            this.mockMvc.perform( MockMvcRequestBuilders
+                            .get("/api/posts/uniqueUserCount")
+                            .accept(MediaType.APPLICATION_JSON))
+                            .andExpect(status().isServiceUnavailable());
+
+            assertEquals(1.0, registry.get("posts.errors")
+                    .tag("exception", "WebClientResponseException")
+                    .tag("status", "503")
+                    .counter().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+
+    }
+
 }
@@ -0,0 +1,304 @@
+package com.flowers.codechallenge.controller;
+
+import com.flowers.codechallenge.dto.PostDetails;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.exception.PostNotFoundException;
+import com.flowers.codechallenge.exception.PostVersionConflictException;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.model.User;
+import com.flowers.codechallenge.service.impl.ReactivePostServiceImpl;
+import com.flowers.codechallenge.store.VersionedPost;
+import com.flowers.codechallenge.util.WireFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+@WebFluxTest(controllers = ReactivePostController.class)
+public class ReactivePostControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactivePostServiceImpl postService;
+
+    @Test
+    void should_ReturnUniqueUserIdCount_When_GetRESTEndpoint_Calls() {
+        given(postService.getSnapshotVersion()).willReturn(Mono.just(1L));
+        given(postService.getUniqueUserCount()).willReturn(Mono.just(5L));
+
+        this.webTestClient.get()
+                .uri("/api/posts/uniqueUserCount")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$").isEqualTo(5);
+    }
+
+    @Test
+    void should_ReturnNotModified_When_ETagMatches() {
+        given(postService.getSnapshotVersion()).willReturn(Mono.just(3L));
+        given(postService.getUniqueUserCount()).willReturn(Mono.just(7L));
+
+        String etag = this.webTestClient.get()
+                .uri("/api/posts/uniqueUserCount")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("7")
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        this.webTestClient.get()
+                .uri("/api/posts/uniqueUserCount")
+                .header("If-None-Match", etag)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etag)
+                .expectBody().isEmpty();
+
+        verify(postService, times(1)).getUniqueUserCount();
+    }
+
+    @Test
+    void should_ReturnUpdatedPost_When_PutRESTEndpoint_Calls() {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+
+        given(postService.getUpdatedPost(4L, post, null)).willReturn(Mono.just(new VersionedPost(post, 1L)));
+
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(post)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("1800Flowers")
+                .jsonPath("$.body").isEqualTo("1800Flowers");
+    }
+
+    @Test
+    void should_ReadCborAndWriteSmile_When_PutRESTEndpoint_Calls() throws Exception {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        given(postService.getUpdatedPost(4L, post, null)).willReturn(Mono.just(new VersionedPost(post, 1L)));
+
+        byte[] body = this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(WireFormats.APPLICATION_SMILE)
+                .bodyValue(cborMapper.writeValueAsBytes(post))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(WireFormats.APPLICATION_SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(post, smileMapper.readValue(body, Post.class));
+    }
+
+    @Test
+    void should_ReturnCborBody_When_CborIsAccepted() throws Exception {
+        given(postService.getSnapshotVersion()).willReturn(Mono.just(6L));
+        given(postService.getUniqueUserCount()).willReturn(Mono.just(9L));
+
+        byte[] body = this.webTestClient.get()
+                .uri("/api/posts/uniqueUserCount")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(9L, Jackson2ObjectMapperBuilder.cbor().build().readValue(body, Long.class));
+    }
+
+    @Test
+    void should_ThrowPreconditionFailed_When_IfMatchIsStale() {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+
+        given(postService.getUpdatedPost(4L, post, "\"7\""))
+                .willReturn(Mono.error(new PostVersionConflictException("Post at index 4 has version \"8\"", "\"8\"")));
+
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .header("If-Match", "\"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(post)
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectHeader().valueEquals("ETag", "\"8\"")
+                .expectBody().jsonPath("$.statusCode").isEqualTo(412);
+    }
+
+    @Test
+    void should_ReturnPartialPostDetails_When_FullPostIsRequested() {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+
+        given(postService.getPostDetails(4)).willReturn(Mono.just(PostDetails.builder()
+                .post(post)
+                .user(new User(3, "name", "user", "a@b.c", "1-800", "1800flowers.com"))
+                .missing(Arrays.asList(PostDetails.COMMENTS))
+                .build()));
+
+        this.webTestClient.get()
+                .uri("/api/posts/{id}/full", 4)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.post.id").isEqualTo(4)
+                .jsonPath("$.user.id").isEqualTo(3)
+                .jsonPath("$.comments").doesNotExist()
+                .jsonPath("$.missing[0]").isEqualTo("comments");
+    }
+
+    @Test
+    void should_ThrowNotFound_When_FullPostDoesNotExist() {
+        given(postService.getPostDetails(999)).willReturn(Mono.error(new PostNotFoundException("Post 999 does not exist")));
+
+        this.webTestClient.get()
+                .uri("/api/posts/{id}/full", 999)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.statusCode").isEqualTo(404);
+    }
+
+    @Test
+    void should_ThrowBadRequest() {
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new Post(3, 4, "1800Flowers", ""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.reason").isEqualTo("Property 'body' should not be null or blank !!");
+    }
+
+    @Test
+    void should_ThrowArrayIndexOutOfBoundsException() {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+
+        given(postService.getUpdatedPost(400L, post, null)).willReturn(Mono.error(new ArrayIndexOutOfBoundsException("Requested array index is out of range!!")));
+
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 400L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(post)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void should_ThrowWebClientResponseException() {
+        given(postService.getSnapshotVersion()).willReturn(Mono.just(2L));
+        given(postService.getUniqueUserCount()).willReturn(Mono.error(WebClientResponseException.create(500, "Internal Server Error", null, null, null)));
+
+        this.webTestClient.get()
+                .uri("/api/posts/uniqueUserCount")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.requestedUri").isEqualTo("uri=/api/posts/uniqueUserCount");
+    }
+
+    @Test
+    void should_ThrowMethodArgumentTypeMismatchException() {
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", "Test")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new Post(3, 4, "1800Flowers", "1800Flowers"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void should_ThrowJsonParserException() {
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("<xml><id></id></xml")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void should_ThrowUnsupportedMediaTypeException() {
+        this.webTestClient.put()
+                .uri("/api/posts/{index}", 4L)
+                .contentType(MediaType.APPLICATION_XML)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("<post/>")
+                .exchange()
+                .expectStatus().isEqualTo(415);
+    }
+
+    @Test
+    void should_ReturnPostPage_When_GetPostsRESTEndpoint_Calls() {
+        Post post = new Post(3, 4, "1800Flowers", "1800Flowers");
+
+        given(postService.getPostPage(null, 1, "cDoz")).willReturn(Mono.just(
+                PostPage.builder().offset(3).limit(1).total(4).posts(Arrays.asList(post)).build()));
+
+        this.webTestClient.get()
+                .uri("/api/posts?limit=1&cursor=cDoz")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.offset").isEqualTo(3)
+                .jsonPath("$.nextCursor").doesNotExist()
+                .jsonPath("$.posts[0].id").isEqualTo(4);
+    }
+
+    @Test
+    void should_StreamPostsAsNdjson_When_GetPostsRESTEndpoint_Calls() {
+        Post first = new Post(1, 1, "1800Flowers1", "1800Flowers1");
+        Post second = new Post(1, 2, "1800Flowers2", "1800Flowers2");
+
+        given(postService.getPosts(0, null)).willReturn(Flux.just(first, second));
+
+        Flux<Post> body = this.webTestClient.get()
+                .uri("/api/posts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Post.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .expectNext(first, second)
+                .verifyComplete();
+    }
+
+}
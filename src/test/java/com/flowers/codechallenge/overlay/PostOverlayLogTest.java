@@ -0,0 +1,182 @@
+package com.flowers.codechallenge.overlay;
+
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PostOverlayLogTest {
+
+    @TempDir
+    Path directory;
+
+    private PostOverlayLog overlayLog;
+
+    private final List<Post> posts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        posts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+        posts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
+        posts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
+        overlayLog = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        overlayLog.close();
+    }
+
+    private PostOverlayLog open() throws IOException {
+        PostOverlayLog log = new PostOverlayLog();
+        log.path = directory.resolve("posts-overlay.log").toString();
+        log.initialSizeBytes = 256;
+        log.open();
+        return log;
+    }
+
+    private PostOverlayLog reopen() throws IOException {
+        overlayLog.close();
+        overlayLog = open();
+        return overlayLog;
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check edits made through the store survive a restart")
+    void should_ReplayEdits_When_LogIsReopened() throws IOException {
+        //given
+        PostStore store = new OverlayPostStore(new ArrayPostStore(posts), overlayLog);
+        store.update(1, "1800Flowers", "1800Flowers");
+        store.update(1, "1800Flowers-edited", "1800Flowers-edited");
+        store.update(2, "1800Flowers", "1800Flowers");
+
+        //when
+        PostOverlayLog reopened = reopen();
+        PostStore fresh = new ArrayPostStore(posts);
+        int applied = reopened.applyTo(fresh);
+
+        //then
+        assertAll(
+                () -> assertEquals(2, applied),
+                () -> assertEquals(3, reopened.recordCount()),
+                () -> assertEquals("1800Flowers1", fresh.get(0).getTitle()),
+                () -> assertEquals("1800Flowers-edited", fresh.get(1).getTitle()),
+                () -> assertEquals("1800Flowers", fresh.get(2).getBody())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an edit is not merged over a different Post")
+    void should_SkipEdit_When_PositionHoldsAnotherPost() {
+        //given
+        overlayLog.append(0, 1, "1800Flowers", "1800Flowers");
+        overlayLog.append(5, 6, "1800Flowers", "1800Flowers");
+        List<Post> reordered = new ArrayList<>(posts);
+        reordered.set(0, posts.get(1));
+        reordered.set(1, posts.get(0));
+
+        //when
+        PostStore store = new ArrayPostStore(reordered);
+        int applied = overlayLog.applyTo(store);
+
+        //then
+        assertEquals(0, applied);
+        assertEquals("1800Flowers2", store.get(0).getTitle());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the group commit waits for a running compaction")
+    void should_WaitForCompaction_When_CommitIsDue() throws Exception {
+        //given
+        overlayLog.append(0, 1, "1800Flowers", "1800Flowers");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> commit;
+
+        //when
+        synchronized (overlayLog) {
+            // compaction holds this lock while it replaces the mapping
+            commit = executor.submit(overlayLog::commit);
+            Thread.sleep(100);
+            assertFalse(commit.isDone());
+            overlayLog.compact();
+        }
+        commit.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //then
+        assertEquals("1800Flowers", reopen().get(0).getTitle());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check compaction keeps only the latest edit of a position")
+    void should_KeepLatestEdits_When_LogIsCompacted() throws IOException {
+        //given
+        for (int i = 0; i < 50; i++) {
+            overlayLog.append(i % 2, i % 2 + 1, "1800Flowers" + i, "1800Flowers" + i);
+        }
+
+        //when
+        overlayLog.compact();
+        overlayLog.append(2, 3, "1800Flowers", "1800Flowers");
+        PostOverlayLog reopened = reopen();
+
+        //then
+        assertAll(
+                () -> assertEquals(3, reopened.recordCount()),
+                () -> assertEquals("1800Flowers48", reopened.get(0).getTitle()),
+                () -> assertEquals("1800Flowers49", reopened.get(1).getTitle()),
+                () -> assertEquals("1800Flowers", reopened.get(2).getTitle())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check replay stops at a torn record")
+    void should_IgnoreTornRecord_When_LogIsReopened() throws IOException {
+        //given
+        overlayLog.append(0, 1, "1800Flowers", "1800Flowers");
+        overlayLog.append(1, 2, "1800Flowers", "1800Flowers");
+        overlayLog.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("posts-overlay.log").toFile(), "rw")) {
+            // file header, first record header and payload, second record header
+            long secondRecordPayload = 8 + 8 + 46 + 8;
+            file.seek(secondRecordPayload + 10);
+            file.write(0xFF);
+        }
+
+        //when
+        overlayLog = open();
+        overlayLog.append(2, 3, "1800Flowers", "1800Flowers");
+        PostOverlayLog reopened = reopen();
+
+        //then
+        assertAll(
+                () -> assertEquals(2, reopened.size()),
+                () -> assertNotNull(reopened.get(0)),
+                () -> assertNull(reopened.get(1)),
+                () -> assertNotNull(reopened.get(2))
+        );
+
+    }
+}
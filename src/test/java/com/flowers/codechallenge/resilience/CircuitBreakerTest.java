@@ -0,0 +1,103 @@
+package com.flowers.codechallenge.resilience;
+
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("/posts", 4, 4, 50, 1000, 2, nanoTime::get);
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private Mono<String> call(Mono<String> outcome) {
+        return circuitBreaker.protect(outcome.doOnSubscribe(s -> subscriptions.incrementAndGet()));
+    }
+
+    private static Mono<String> failure() {
+        return Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+    }
+
+    private void advance(long millis) {
+        nanoTime.addAndGet(millis * 1_000_000L);
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check the breaker opens once the failure rate is reached and then fails fast")
+    void should_FailFast_When_FailureRateIsReached() {
+        //given
+        call(Mono.just("ok")).block();
+        call(Mono.just("ok")).block();
+        StepVerifier.create(call(failure())).expectError(WebClientResponseException.class).verify();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        //when
+        StepVerifier.create(call(failure())).expectError(WebClientResponseException.class).verify();
+
+        //then
+        StepVerifier.create(call(Mono.just("ok"))).expectError(UpstreamUnavailableException.class).verify();
+        assertAll(
+                () -> assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState()),
+                () -> assertEquals(4, subscriptions.get())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check trial calls close the breaker after the open duration")
+    void should_Close_When_TrialCallsSucceed() {
+        //given
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(call(failure())).expectError().verify();
+        }
+        advance(1000);
+
+        //when
+        call(Mono.just("ok")).block();
+        CircuitBreaker.State afterFirstTrial = circuitBreaker.getState();
+        call(Mono.just("ok")).block();
+
+        //then
+        assertAll(
+                () -> assertEquals(CircuitBreaker.State.HALF_OPEN, afterFirstTrial),
+                () -> assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState()),
+                () -> assertEquals("ok", call(Mono.just("ok")).block())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a failed trial call opens the breaker again and client errors are not failures")
+    void should_Reopen_When_TrialCallFails() {
+        //given
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(call(Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null))))
+                    .expectError().verify();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(call(failure())).expectError().verify();
+        }
+        advance(1000);
+
+        //when
+        StepVerifier.create(call(failure())).expectError(WebClientResponseException.class).verify();
+
+        //then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        StepVerifier.create(call(Mono.just("ok"))).expectError(UpstreamUnavailableException.class).verify();
+
+    }
+}
@@ -0,0 +1,111 @@
+package com.flowers.codechallenge.resilience;
+
+import com.flowers.codechallenge.exception.BulkheadFullException;
+import com.flowers.codechallenge.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class UpstreamPolicyTest {
+
+    @Test
+    @DisplayName(value = "Test case to check calls beyond the bulkhead limit are rejected until one completes")
+    void should_RejectCall_When_BulkheadIsFull() {
+        //given
+        UpstreamPolicy policy = new UpstreamPolicy(null, new Bulkhead("/posts", 1), null);
+        Sinks.One<String> upstream = Sinks.one();
+        StepVerifier.FirstStep<String> first = StepVerifier.create(policy.apply(upstream.asMono()));
+
+        //when
+        first.then(() -> StepVerifier.create(policy.apply(Mono.just("second")))
+                        .expectError(UpstreamUnavailableException.class)
+                        .verify())
+                .then(() -> upstream.tryEmitValue("first"))
+                .expectNext("first")
+                .verifyComplete();
+
+        //then
+        assertAll(
+                () -> assertEquals(0, policy.getBulkhead().inFlight()),
+                () -> assertEquals("third", policy.apply(Mono.just("third")).block())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check calls rejected by a full bulkhead do not open the circuit breaker")
+    void should_KeepBreakerClosed_When_BulkheadIsSaturated() {
+        //given
+        CircuitBreaker circuitBreaker = new CircuitBreaker("/posts", 10, 10, 50, 30000, 3);
+        UpstreamPolicy policy = new UpstreamPolicy(circuitBreaker, new Bulkhead("/posts", 1), null);
+        Sinks.One<String> upstream = Sinks.one();
+        StepVerifier.FirstStep<String> first = StepVerifier.create(policy.apply(upstream.asMono()));
+
+        //when
+        first.then(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        StepVerifier.create(policy.apply(Mono.just("rejected")))
+                                .expectError(BulkheadFullException.class)
+                                .verify();
+                    }
+                })
+                .then(() -> upstream.tryEmitValue("first"))
+                .expectNext("first")
+                .verifyComplete();
+
+        //then
+        assertAll(
+                () -> assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState()),
+                () -> assertEquals("next", policy.apply(Mono.just("next")).block())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a slow call is hedged and the first answer wins")
+    void should_HedgeCall_When_FirstAttemptIsSlow() {
+        //given
+        Hedger hedger = new Hedger(50, 95);
+        UpstreamPolicy policy = new UpstreamPolicy(null, null, hedger);
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).thenReturn("slow")
+                : Mono.just("hedged"));
+
+        //when
+        String actual = policy.apply(call).block(Duration.ofSeconds(2));
+
+        //then
+        assertAll(
+                () -> assertEquals("hedged", actual),
+                () -> assertEquals(2, attempts.get()),
+                () -> assertEquals(Duration.ofMillis(50), hedger.hedgeDelay())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the hedge delay follows the latency percentile and the first error is reported")
+    void should_UsePercentileDelay_When_EnoughLatenciesAreRecorded() {
+        //given
+        Hedger hedger = new Hedger(10, 95);
+        for (int i = 1; i <= 100; i++) {
+            hedger.record(Duration.ofMillis(i).toNanos());
+        }
+
+        //then
+        assertEquals(Duration.ofMillis(95), hedger.hedgeDelay());
+        StepVerifier.create(new UpstreamPolicy(null, null, hedger).apply(Mono.error(new IllegalStateException("down"))))
+                .expectErrorMessage("down")
+                .verify();
+
+    }
+}
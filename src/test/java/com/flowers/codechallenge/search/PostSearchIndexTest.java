@@ -0,0 +1,240 @@
+package com.flowers.codechallenge.search;
+
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.store.ArrayPostStore;
+import com.flowers.codechallenge.store.PostStore;
+import com.flowers.codechallenge.store.VersionedPost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PostSearchIndexTest {
+
+    private final List<Post> posts = new ArrayList<>();
+
+    private PostSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        posts.add(new Post(1, 1, "Red roses", "Fresh red roses for the weekend"));
+        posts.add(new Post(1, 2, "White lilies", "Lilies, tulips and roses"));
+        posts.add(new Post(2, 3, "Tulips", "Spring TULIPS in every colour"));
+        posts.add(new Post(3, 4, "Gift baskets", "Chocolate and fruit"));
+        snapshot = new PostSnapshot(1L, posts, 0L);
+    }
+
+    private static HashSet<String> terms(String query) {
+        return new HashSet<>(Tokenizer.terms(query));
+    }
+
+
+    @Test
+    @DisplayName(value = "Test case to check AND, OR and the limit of a query")
+    void should_ReturnMatchingPositions_When_searchCalls() {
+        //when
+        PostSearchIndex index = snapshot.searchIndex();
+
+        //then
+        assertAll(
+                () -> assertArrayEquals(new int[]{0, 1}, index.search(terms("roses"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{1}, index.search(terms("Roses, tulips"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{0, 1, 2}, index.search(terms("roses tulips"), SearchOperator.OR, 10)),
+                () -> assertArrayEquals(new int[]{0, 1}, index.search(terms("roses tulips"), SearchOperator.OR, 2)),
+                () -> assertArrayEquals(new int[0], index.search(terms("roses orchids"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{3}, index.search(terms("orchids chocolate"), SearchOperator.OR, 10))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an updated Post is found by its new words only")
+    void should_FollowUpdates_When_PostIsUpdated() {
+        //given
+        PostSearchIndex index = snapshot.searchIndex();
+
+        //when
+        snapshot.updatePost(1L, new Post(0, 0, "Orchids", "Orchids in a pot"));
+
+        //then
+        assertAll(
+                () -> assertSame(index, snapshot.searchIndex()),
+                () -> assertArrayEquals(new int[]{1}, index.search(terms("roses"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{0}, index.search(terms("orchids"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{0, 3}, index.search(terms("pot chocolate"), SearchOperator.OR, 10)),
+                () -> assertArrayEquals(new int[]{0}, snapshot.revalidated(1L).searchIndex().search(terms("orchids"), SearchOperator.AND, 10))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the index is rebuilt in the background once too many Posts are updated")
+    void should_RebuildIndex_When_TooManyPostsAreUpdated() throws InterruptedException {
+        //given
+        PostSnapshot manySnapshot = manySnapshot(2000);
+        PostSearchIndex index = manySnapshot.searchIndex();
+
+        //when
+        for (long i = 1; i <= 1100; i++) {
+            manySnapshot.updatePost(i, new Post(0, 0, "edited " + i, "body"));
+        }
+        PostSearchIndex serving = manySnapshot.searchIndex();
+        PostSearchIndex rebuilt = awaitRebuild(manySnapshot, index);
+
+        //then
+        assertAll(
+                () -> assertEquals(1100, serving.search(terms("edited"), SearchOperator.AND, 5000).length),
+                () -> assertNotSame(index, rebuilt),
+                () -> assertFalse(rebuilt.needsRebuild()),
+                () -> assertEquals(1100, rebuilt.search(terms("edited"), SearchOperator.AND, 5000).length),
+                () -> assertArrayEquals(new int[]{1099}, rebuilt.search(terms("edited 1100"), SearchOperator.AND, 10))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check updates made during a rebuild reach the rebuilt index")
+    void should_FollowUpdates_When_PostIsUpdatedDuringRebuild() throws InterruptedException {
+        //given
+        PostSnapshot manySnapshot = manySnapshot(2000);
+        PostSearchIndex index = manySnapshot.searchIndex();
+        for (long i = 1; i <= 1100; i++) {
+            manySnapshot.updatePost(i, new Post(0, 0, "edited " + i, "body"));
+        }
+
+        //when
+        manySnapshot.searchIndex();
+        manySnapshot.updatePost(2000L, new Post(0, 0, "Orchids", "body"));
+        manySnapshot.updatePost(1L, new Post(0, 0, "Orchids again", "body"));
+        manySnapshot.updatePost(1L, new Post(0, 0, "Roses", "body"));
+        PostSearchIndex rebuilt = awaitRebuild(manySnapshot, index);
+
+        //then
+        assertAll(
+                () -> assertArrayEquals(new int[]{1999}, rebuilt.search(terms("orchids"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{0}, rebuilt.search(terms("roses"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[]{1999}, index.search(terms("orchids"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[0], rebuilt.search(terms("again"), SearchOperator.AND, 10))
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check concurrent updates of one Post leave the index matching the stored Post")
+    void should_MatchStoredPost_When_PostIsUpdatedConcurrently() throws InterruptedException {
+        //given
+        ArrayPostStore delegate = new ArrayPostStore(posts);
+        AtomicBoolean slowRead = new AtomicBoolean();
+        CountDownLatch firstRead = new CountDownLatch(1);
+        CountDownLatch secondUpdated = new CountDownLatch(1);
+        PostStore store = new PostStore() {
+            @Override
+            public int size() {
+                return delegate.size();
+            }
+
+            @Override
+            public Post get(int position) {
+                Post post = delegate.get(position);
+                if (slowRead.compareAndSet(true, false)) {
+                    firstRead.countDown();
+                    try {
+                        secondUpdated.await(500, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return post;
+            }
+
+            @Override
+            public VersionedPost getVersioned(int position) {
+                return delegate.getVersioned(position);
+            }
+
+            @Override
+            public VersionedPost compareAndUpdate(int position, long expectedVersion, String title, String body) {
+                return delegate.compareAndUpdate(position, expectedVersion, title, body);
+            }
+
+            @Override
+            public List<Post> asList() {
+                return delegate.asList();
+            }
+        };
+        PostSearchIndex index = new PostSearchIndex(store);
+        index.build();
+
+        //when
+        slowRead.set(true);
+        Thread first = new Thread(() -> {
+            store.update(0, "Orchids", "body");
+            index.update(0);
+        });
+        first.start();
+        firstRead.await(5, TimeUnit.SECONDS);
+        store.update(0, "Peonies", "body");
+        index.update(0);
+        secondUpdated.countDown();
+        first.join(5000);
+
+        //then
+        assertAll(
+                () -> assertEquals("Peonies", store.get(0).getTitle()),
+                () -> assertArrayEquals(new int[]{0}, index.search(terms("peonies"), SearchOperator.AND, 10)),
+                () -> assertArrayEquals(new int[0], index.search(terms("orchids"), SearchOperator.AND, 10))
+        );
+
+    }
+
+    private static PostSnapshot manySnapshot(int size) {
+        List<Post> manyPosts = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            manyPosts.add(new Post(i, i, "title " + i, "body"));
+        }
+        return new PostSnapshot(1L, manyPosts, 0L);
+    }
+
+    private static PostSearchIndex awaitRebuild(PostSnapshot snapshot, PostSearchIndex index) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (snapshot.searchIndex() == index && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return snapshot.searchIndex();
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check posting lists decode to the encoded positions")
+    void should_DecodeSamePositions_When_PostingListIsBuilt() {
+        //given
+        Random random = new Random(7);
+        int[] positions = new int[5000];
+        int position = 0;
+        for (int i = 0; i < positions.length; i++) {
+            position += 1 + random.nextInt(i % 100 == 0 ? 1_000_000 : 10);
+            positions[i] = position;
+        }
+
+        //when
+        PostingList postingList = PostingList.of(positions, positions.length);
+
+        //then
+        assertArrayEquals(positions, postingList.positions());
+        assertTrue(postingList.sizeInBytes() < positions.length * 2);
+        assertEquals(Arrays.asList("spring", "tulips", "in", "every", "colour"),
+                new ArrayList<>(Tokenizer.terms(posts.get(2).getBody())));
+
+    }
+}
@@ -7,21 +7,33 @@
 
 package com.flowers.codechallenge.service;
 
+import com.flowers.codechallenge.broadcast.PostChanges;
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.dto.PostEdit;
+import com.flowers.codechallenge.dto.PostEditResult;
+import com.flowers.codechallenge.dto.PostPage;
+import com.flowers.codechallenge.exception.InvalidRequestParameterException;
+import com.flowers.codechallenge.exception.PostVersionConflictException;
 import com.flowers.codechallenge.model.Post;
 import com.flowers.codechallenge.service.impl.PostServiceImpl;
+import com.flowers.codechallenge.store.VersionedPost;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,22 +47,19 @@ class PostServiceTest {
     PostServiceImpl postService;
 
     @Mock
-    WebClient webClientMock;
+    PostSnapshotCache postSnapshotCacheMock;
 
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersMock;
-
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriMock;
+    @Spy
+    PostChanges postChanges = new PostChanges();
 
-   /* @Mock
-    private WebClient.RequestBodySpec requestBodyMock;
+    @Spy
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
-    @Mock
-    private WebClient.RequestBodyUriSpec requestBodyUriMock;*/
-
-    @Mock
-    private WebClient.ResponseSpec responseMock;
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postService, "defaultPageLimit", 2);
+        ReflectionTestUtils.setField(postService, "maxPageLimit", 3);
+    }
 
 
     @Test
@@ -63,16 +72,14 @@ class PostServiceTest {
         expectedPosts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
         expectedPosts.add(new Post(3, 4, "1800Flowers4", "1800Flowers4"));
 
-        when(webClientMock.get()).thenReturn(requestHeadersUriMock);
-        when(requestHeadersUriMock.uri("/posts")).thenReturn(requestHeadersMock);
-        when(requestHeadersMock.retrieve()).thenReturn(responseMock);
-        when(responseMock.bodyToMono(new ParameterizedTypeReference<List<Post>>() {})).thenReturn(Mono.just(expectedPosts));
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
 
         //when
         List<Post> actualPosts = postService.getPosts();
 
         //then
         assertAll(
+                () -> assertEquals(expectedPosts.size(), actualPosts.size()),
                 () -> assertEquals(expectedPosts.get(1).getUserId(), actualPosts.get(1).getUserId()),
                 () -> assertEquals(expectedPosts.get(1).getId(), actualPosts.get(1).getId()),
                 () -> assertEquals(expectedPosts.get(1).getTitle(), actualPosts.get(1).getTitle()),
@@ -85,15 +92,7 @@ class PostServiceTest {
     @DisplayName(value = "Test case to check whether the exception throws or not")
     void should_ThrowException_When_PostServiceIsUnavailable() {
         //given
-        List<Post> expectedPosts = new ArrayList<>();
-        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
-        expectedPosts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
-        expectedPosts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
-        expectedPosts.add(new Post(3, 4, "1800Flowers4", "1800Flowers4"));
-
-        when(webClientMock.get()).thenReturn(requestHeadersUriMock);
-        when(requestHeadersUriMock.uri("/posts")).thenReturn(requestHeadersMock);
-        when(requestHeadersMock.retrieve()).thenThrow(WebClientResponseException.class);
+        when(postSnapshotCacheMock.getSnapshot()).thenThrow(WebClientResponseException.class);
 
         //when
         Executable executable = () -> postService.getPosts();
@@ -119,10 +118,7 @@ class PostServiceTest {
 
         Long expectedUniqueUserCount = 5l;
 
-        when(webClientMock.get()).thenReturn(requestHeadersUriMock);
-        when(requestHeadersUriMock.uri("/posts")).thenReturn(requestHeadersMock);
-        when(requestHeadersMock.retrieve()).thenReturn(responseMock);
-        when(responseMock.bodyToMono(new ParameterizedTypeReference<List<Post>>() {})).thenReturn(Mono.just(expectedPosts));
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
 
         //when
         Long actualUniqueUserCount = postService.getUniqueUserCount();
@@ -148,10 +144,7 @@ class PostServiceTest {
 
         Post expectedUpdatedPost = new Post(3, 4, "1800Flowers", "1800Flowers");
 
-        when(webClientMock.get()).thenReturn(requestHeadersUriMock);
-        when(requestHeadersUriMock.uri("/posts")).thenReturn(requestHeadersMock);
-        when(requestHeadersMock.retrieve()).thenReturn(responseMock);
-        when(responseMock.bodyToMono(new ParameterizedTypeReference<List<Post>>() {})).thenReturn(Mono.just(expectedPosts));
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
 
         //when
         Post actualUpdatedPost = postService.getUpdatedPost(4l, expectedUpdatedPost);
@@ -163,4 +156,179 @@ class PostServiceTest {
         );
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName(value = "Test case to check the cached Post is replaced and not modified by an update")
+    void should_ReplaceCachedPost_When_getUpdatedPostsCalls() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+        expectedPosts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
+
+        PostSnapshot snapshot = new PostSnapshot(1L, expectedPosts, 0L);
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(snapshot);
+
+        //when
+        Post actualUpdatedPost = postService.getUpdatedPost(2l, new Post(0, 0, "1800Flowers", "1800Flowers"));
+
+        //then
+        assertAll(
+                () -> assertEquals(2, actualUpdatedPost.getId()),
+                () -> assertEquals(1, actualUpdatedPost.getUserId()),
+                () -> assertEquals("1800Flowers", actualUpdatedPost.getTitle()),
+                () -> assertSame(actualUpdatedPost, snapshot.getPosts().get(1)),
+                () -> assertEquals("1800Flowers2", expectedPosts.get(1).getTitle())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an update sent with a stale If-Match is rejected")
+    void should_ThrowConflict_When_IfMatchIsStale() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+
+        PostSnapshot snapshot = new PostSnapshot(1L, expectedPosts, 0L);
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(snapshot);
+        String etag = postService.getPost(1L).getEtag();
+
+        //when
+        VersionedPost updated = postService.getUpdatedPost(1L, new Post(0, 0, "1800Flowers", "1800Flowers"), etag);
+        PostVersionConflictException conflict = assertThrows(PostVersionConflictException.class,
+                () -> postService.getUpdatedPost(1L, new Post(0, 0, "stale", "stale"), etag));
+
+        //then
+        assertAll(
+                () -> assertNotEquals(etag, updated.getEtag()),
+                () -> assertEquals(updated.getEtag(), conflict.getCurrentEtag()),
+                () -> assertEquals(updated.getEtag(), postService.getPost(1L).getEtag()),
+                () -> assertEquals("1800Flowers", snapshot.getPosts().get(0).getTitle())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check whether the exception throws for index out of range")
+    void should_ThrowException_When_IndexIsOutOfRange() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
+
+        //then
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> postService.getUpdatedPost(2l, expectedPosts.get(0)));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> postService.getUpdatedPost(0l, expectedPosts.get(0)));
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check every edit of a batch gets its own result")
+    void should_ReturnResultPerEdit_When_getUpdatedPostsCalls() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+        expectedPosts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
+        expectedPosts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
+
+        PostSnapshot snapshot = new PostSnapshot(1L, expectedPosts, 0L);
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(snapshot);
+
+        List<PostEdit> edits = Arrays.asList(
+                new PostEdit(1L, "1800Flowers", "1800Flowers"),
+                new PostEdit(2L, " ", "1800Flowers"),
+                new PostEdit(9L, "1800Flowers", "1800Flowers"),
+                null,
+                new PostEdit(3L, "1800Flowers", "1800Flowers"));
+
+        //when
+        List<PostEditResult> results = postService.getUpdatedPosts(edits);
+
+        //then
+        assertAll(
+                () -> assertEquals(5, results.size()),
+                () -> assertEquals(200, results.get(0).getStatusCode()),
+                () -> assertSame(results.get(0).getPost(), snapshot.getPosts().get(0)),
+                () -> assertEquals(400, results.get(1).getStatusCode()),
+                () -> assertEquals("Property 'title' should not be null or blank !!", results.get(1).getError()),
+                () -> assertEquals("1800Flowers2", snapshot.getPosts().get(1).getTitle()),
+                () -> assertEquals(400, results.get(2).getStatusCode()),
+                () -> assertEquals("Requested array index is out of range!!", results.get(2).getError()),
+                () -> assertEquals(400, results.get(3).getStatusCode()),
+                () -> assertEquals(200, results.get(4).getStatusCode()),
+                () -> assertEquals(3, results.get(4).getPost().getId())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check pages can be walked with the returned cursors")
+    void should_WalkAllPages_When_getPostPageCallsWithCursor() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            expectedPosts.add(new Post(1, i, "1800Flowers" + i, "1800Flowers" + i));
+        }
+
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
+
+        //when
+        PostPage first = postService.getPostPage(null, null, null);
+        PostPage second = postService.getPostPage(null, 10, first.getNextCursor());
+        PostPage offsetPage = postService.getPostPage(4, null, null);
+
+        //then
+        assertAll(
+                () -> assertEquals(Arrays.asList(expectedPosts.get(0), expectedPosts.get(1)), first.getPosts()),
+                () -> assertEquals(5, first.getTotal()),
+                () -> assertEquals(2, second.getOffset()),
+                () -> assertEquals(3, second.getLimit()),
+                () -> assertEquals(expectedPosts.subList(2, 5), second.getPosts()),
+                () -> assertNull(second.getNextCursor()),
+                () -> assertEquals(Arrays.asList(expectedPosts.get(4)), offsetPage.getPosts()),
+                () -> assertNull(offsetPage.getNextCursor())
+        );
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check whether the exception throws for an invalid range or cursor")
+    void should_ThrowException_When_PageRangeIsInvalid() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        expectedPosts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
+
+        //then
+        assertThrows(InvalidRequestParameterException.class, () -> postService.getPosts(-1, null));
+        assertThrows(InvalidRequestParameterException.class, () -> postService.getPosts(0, 0));
+        assertThrows(InvalidRequestParameterException.class, () -> postService.getPostPage(null, null, "not-a-cursor"));
+        assertTrue(postService.getPosts(5, null).isEmpty());
+
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check whether the cursor of an earlier snapshot is rejected")
+    void should_ThrowException_When_CursorIsOfEarlierSnapshot() {
+        //given
+        List<Post> expectedPosts = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            expectedPosts.add(new Post(1, i, "1800Flowers" + i, "1800Flowers" + i));
+        }
+
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(1L, expectedPosts, 0L));
+        String cursor = postService.getPostPage(null, 10, null).getNextCursor();
+
+        //when
+        when(postSnapshotCacheMock.getSnapshot()).thenReturn(new PostSnapshot(2L, expectedPosts, 0L));
+
+        //then
+        InvalidRequestParameterException exception = assertThrows(InvalidRequestParameterException.class,
+                () -> postService.getPostPage(null, 10, cursor));
+        assertTrue(exception.getMessage().contains("earlier version"));
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.flowers.codechallenge.service;
+
+import com.flowers.codechallenge.broadcast.PostChanges;
+import com.flowers.codechallenge.cache.PostSnapshot;
+import com.flowers.codechallenge.cache.PostSnapshotCache;
+import com.flowers.codechallenge.model.Post;
+import com.flowers.codechallenge.search.SearchOperator;
+import com.flowers.codechallenge.service.impl.ReactivePostServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePostServiceTest {
+
+    @InjectMocks
+    ReactivePostServiceImpl postService;
+
+    @Mock
+    PostSnapshotCache postSnapshotCacheMock;
+
+    @Spy
+    PostChanges postChanges = new PostChanges();
+
+    private final List<Post> posts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        posts.add(new Post(1, 1, "1800Flowers1", "1800Flowers1"));
+        posts.add(new Post(1, 2, "1800Flowers2", "1800Flowers2"));
+        posts.add(new Post(2, 3, "1800Flowers3", "1800Flowers3"));
+
+        when(postSnapshotCacheMock.snapshot()).thenReturn(Mono.just(new PostSnapshot(1L, posts, 0L)));
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check all posts are emitted in order")
+    void should_EmitAllPosts_When_getPostsCalls() {
+        StepVerifier.create(postService.getPosts())
+                .expectNext(posts.get(0), posts.get(1), posts.get(2))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the unique userIds")
+    void should_ReturnUniqueUserCount_When_getUniqueUserCountCalls() {
+        StepVerifier.create(postService.getUniqueUserCount())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check given indexed Post is updated or not")
+    void should_ReturnUpdatedPost_When_getUpdatedPostCalls() {
+        StepVerifier.create(postService.getUpdatedPost(2L, new Post(0, 0, "1800Flowers", "1800Flowers")))
+                .expectNextMatches(post -> post.getId() == 2 && "1800Flowers".equals(post.getTitle()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check the search index is built off the subscribing thread")
+    void should_SearchOnBoundedElastic_When_searchPostsCalls() {
+        ReflectionTestUtils.setField(postService, "defaultSearchLimit", 10);
+        ReflectionTestUtils.setField(postService, "maxPageLimit", 10);
+
+        StepVerifier.create(postService.searchPosts("1800Flowers2", SearchOperator.AND, null))
+                .expectNextMatches(post -> post.getId() == 2 && Thread.currentThread().getName().startsWith("boundedElastic"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check whether the exception is signalled for index out of range")
+    void should_SignalException_When_IndexIsOutOfRange() {
+        StepVerifier.create(postService.getUpdatedPost(4L, posts.get(0)))
+                .expectError(ArrayIndexOutOfBoundsException.class)
+                .verify();
+    }
+}
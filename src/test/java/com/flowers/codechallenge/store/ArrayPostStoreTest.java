@@ -0,0 +1,153 @@
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ArrayPostStoreTest {
+
+    private static List<Post> posts(int size) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            posts.add(new Post(i % 3, i, "1800Flowers" + i, "1800Flowers" + i));
+        }
+        return posts;
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an update replaces the slot with a new Post")
+    void should_ReplaceSlot_When_PostIsUpdated() {
+        List<Post> posts = posts(3);
+        PostStore store = new ArrayPostStore(posts);
+
+        Post updated = store.update(1, "1800Flowers", "1800Flowers");
+
+        assertAll(
+                () -> assertNotSame(posts.get(1), updated),
+                () -> assertSame(updated, store.get(1)),
+                () -> assertSame(updated, store.asList().get(1)),
+                () -> assertEquals(posts.get(1).getId(), updated.getId()),
+                () -> assertEquals(posts.get(1).getUserId(), updated.getUserId()),
+                () -> assertEquals("1800Flowers2", posts.get(1).getTitle()),
+                () -> assertEquals(3, store.asList().size())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check readers never see a partially updated Post")
+    void should_NeverExposePartialUpdate_When_ReadConcurrently() throws Exception {
+        PostStore store = new ArrayPostStore(posts(16));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    String text = "1800Flowers-" + i;
+                    store.update(i % 16, text, text);
+                }
+                running.set(false);
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        for (Post post : store.asList()) {
+                            assertEquals(post.getTitle(), post.getBody());
+                        }
+                    }
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check versions change with every update and stale versions are rejected")
+    void should_RejectUpdate_When_VersionIsStale() {
+        PostStore store = new ArrayPostStore(posts(3));
+        VersionedPost original = store.getVersioned(0);
+
+        VersionedPost updated = store.compareAndUpdate(0, original.getVersion(), "1800Flowers", "1800Flowers");
+        VersionedPost stale = store.compareAndUpdate(0, original.getVersion(), "stale", "stale");
+
+        assertAll(
+                () -> assertEquals(original.getVersion(), store.getVersioned(1).getVersion()),
+                () -> assertTrue(updated.getVersion() > original.getVersion()),
+                () -> assertNull(stale),
+                () -> assertEquals(updated.getVersion(), store.getVersioned(0).getVersion()),
+                () -> assertEquals("1800Flowers", store.get(0).getTitle()),
+                () -> assertTrue(store.getVersioned(0).matches(updated.getEtag())),
+                () -> assertFalse(store.getVersioned(0).matches(original.getEtag() + ", W/" + updated.getEtag()))
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check no conditional update is lost and no read is torn under contention")
+    void should_NeverLoseUpdate_When_ConditionalUpdatesContend() throws Exception {
+        PostStore store = new ArrayPostStore(posts(3));
+        store.update(0, "0", "0");
+        int writers = 4;
+        int increments = 5_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        while (true) {
+                            VersionedPost current = store.getVersioned(0);
+                            String next = String.valueOf(Integer.parseInt(current.getPost().getTitle()) + 1);
+                            if (store.compareAndUpdate(0, current.getVersion(), next, next) != null) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    long lastVersion = 0;
+                    int lastCount = 0;
+                    while (running.get()) {
+                        VersionedPost current = store.getVersioned(0);
+                        int count = Integer.parseInt(current.getPost().getTitle());
+                        assertEquals(current.getPost().getTitle(), current.getPost().getBody());
+                        assertTrue(current.getVersion() >= lastVersion);
+                        assertTrue(count >= lastCount);
+                        lastVersion = current.getVersion();
+                        lastCount = count;
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(String.valueOf(writers * increments), store.get(0).getTitle());
+    }
+}
@@ -0,0 +1,220 @@
+package com.flowers.codechallenge.store;
+
+import com.flowers.codechallenge.model.Post;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ColumnarPostStoreTest {
+
+    private static List<Post> posts(int size) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            posts.add(new Post(i % 3, i, "1800Flowers" + i, "1800Flowersé☀" + i));
+        }
+        return posts;
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check Posts are read back as they were added, on or off heap")
+    void should_ReturnSamePosts_When_StoreIsBuilt() {
+        List<Post> posts = posts(5000);
+
+        ColumnarPostStore onHeap = ColumnarPostStore.of(posts, false);
+        ColumnarPostStore offHeap = ColumnarPostStore.of(posts, true);
+
+        assertAll(
+                () -> assertEquals(posts, onHeap.asList()),
+                () -> assertEquals(posts, offHeap.asList()),
+                () -> assertEquals(5000, onHeap.size()),
+                () -> assertFalse(onHeap.isOffHeap()),
+                () -> assertTrue(offHeap.isOffHeap())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check Posts beyond the buffer limit are rejected with a clear error")
+    void should_RejectPost_When_TextExceedsBufferLimit() {
+        ColumnarPostStore.Builder builder = ColumnarPostStore.builder(false, 200_000);
+        String body = new String(new char[1000]).replace('\0', 'x');
+        int added = 0;
+        IllegalStateException exception = null;
+        while (exception == null) {
+            try {
+                builder.add(new Post(1, added + 1, "1800Flowers" + added, body));
+                added++;
+            } catch (IllegalStateException ex) {
+                exception = ex;
+            }
+        }
+        int accepted = added;
+        String message = exception.getMessage();
+        ColumnarPostStore store = builder.build();
+
+        assertAll(
+                () -> assertTrue(accepted > 150 && accepted < 200),
+                () -> assertTrue(message.contains("200000 bytes")),
+                () -> assertEquals(accepted, store.size()),
+                () -> assertEquals(body, store.get(accepted - 1).getBody()),
+                () -> assertThrows(IllegalStateException.class, () -> {
+                    for (int i = 0; i < 1000; i++) {
+                        store.update(0, "1800Flowers", body + body);
+                    }
+                })
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an update replaces the Post and keeps its ids")
+    void should_ReplacePost_When_PostIsUpdated() {
+        List<Post> posts = posts(3);
+        PostStore store = ColumnarPostStore.of(posts, false);
+
+        Post updated = store.update(1, "1800Flowers", "☀ 1800Flowers");
+
+        assertAll(
+                () -> assertEquals(new Post(2, 2, "1800Flowers", "☀ 1800Flowers"), updated),
+                () -> assertEquals(updated, store.get(1)),
+                () -> assertEquals(posts.get(0), store.get(0)),
+                () -> assertEquals(posts.get(2), store.asList().get(2)),
+                () -> assertEquals("1800Flowers2", posts.get(1).getTitle())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check replaced records are reclaimed instead of growing the buffer")
+    void should_CompactBuffer_When_PostsAreUpdatedRepeatedly() {
+        ColumnarPostStore store = ColumnarPostStore.of(posts(100), true);
+        long initialCapacity = store.bufferCapacity();
+
+        for (int i = 0; i < 100_000; i++) {
+            store.update(i % 100, "1800Flowers-" + i, "1800Flowers-" + i);
+        }
+
+        assertAll(
+                () -> assertTrue(store.bufferCapacity() <= 4 * initialCapacity),
+                () -> assertEquals("1800Flowers-99999", store.get(99).getTitle()),
+                () -> assertEquals("1800Flowers-99900", store.get(0).getBody()),
+                () -> assertEquals(1, store.get(0).getId())
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check readers never see a partially updated Post while the buffer is resized")
+    void should_NeverExposePartialUpdate_When_ReadConcurrently() throws Exception {
+        PostStore store = ColumnarPostStore.of(posts(16), false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    String text = "1800Flowers-" + i;
+                    store.update(i % 16, text, text);
+                }
+                running.set(false);
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        for (Post post : store.asList()) {
+                            if (post.getTitle().startsWith("1800Flowers-")) {
+                                assertEquals(post.getTitle(), post.getBody());
+                            }
+                        }
+                    }
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check versions change with every update and stale versions are rejected")
+    void should_RejectUpdate_When_VersionIsStale() {
+        PostStore store = ColumnarPostStore.of(posts(3), true);
+        VersionedPost original = store.getVersioned(0);
+
+        VersionedPost updated = store.compareAndUpdate(0, original.getVersion(), "1800Flowers", "1800Flowers");
+        VersionedPost stale = store.compareAndUpdate(0, original.getVersion(), "stale", "stale");
+
+        assertAll(
+                () -> assertEquals(original.getVersion(), store.getVersioned(1).getVersion()),
+                () -> assertTrue(updated.getVersion() > original.getVersion()),
+                () -> assertNull(stale),
+                () -> assertEquals(updated.getVersion(), store.getVersioned(0).getVersion()),
+                () -> assertEquals("1800Flowers", store.get(0).getTitle()),
+                () -> assertTrue(store.getVersioned(0).matches(updated.getEtag())),
+                () -> assertFalse(store.getVersioned(0).matches(original.getEtag() + ", W/" + updated.getEtag()))
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check no conditional update is lost and no read is torn under contention")
+    void should_NeverLoseUpdate_When_ConditionalUpdatesContend() throws Exception {
+        PostStore store = ColumnarPostStore.of(posts(3), true);
+        store.update(0, "0", "0");
+        int writers = 4;
+        int increments = 5_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        while (true) {
+                            VersionedPost current = store.getVersioned(0);
+                            String next = String.valueOf(Integer.parseInt(current.getPost().getTitle()) + 1);
+                            if (store.compareAndUpdate(0, current.getVersion(), next, next) != null) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    long lastVersion = 0;
+                    int lastCount = 0;
+                    while (running.get()) {
+                        VersionedPost current = store.getVersioned(0);
+                        int count = Integer.parseInt(current.getPost().getTitle());
+                        assertEquals(current.getPost().getTitle(), current.getPost().getBody());
+                        assertTrue(current.getVersion() >= lastVersion);
+                        assertTrue(count >= lastCount);
+                        lastVersion = current.getVersion();
+                        lastCount = count;
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(String.valueOf(writers * increments), store.get(0).getTitle());
+    }
+}
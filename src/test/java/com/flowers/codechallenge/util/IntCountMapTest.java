@@ -0,0 +1,70 @@
+package com.flowers.codechallenge.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class IntCountMapTest {
+
+    @Test
+    @DisplayName(value = "Test case to check distinct keys are counted")
+    void should_CountDistinctKeys_When_KeysAreAdded() {
+        IntCountMap map = new IntCountMap();
+        map.add(1);
+        map.add(1);
+        map.add(0);
+        map.add(-7);
+
+        assertAll(
+                () -> assertEquals(3, map.distinctCount()),
+                () -> assertEquals(4, map.totalCount()),
+                () -> assertEquals(2, map.get(1)),
+                () -> assertEquals(1, map.get(0)),
+                () -> assertEquals(0, map.get(42))
+        );
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check a key is dropped when its count reaches zero")
+    void should_DropKey_When_CountReachesZero() {
+        IntCountMap map = new IntCountMap();
+        map.add(5);
+        map.add(5);
+
+        assertTrue(map.remove(5));
+        assertEquals(1, map.distinctCount());
+        assertTrue(map.remove(5));
+        assertEquals(0, map.distinctCount());
+        assertFalse(map.remove(5));
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check random updates match a boxed reference map")
+    void should_MatchReferenceMap_When_RandomlyUpdated() {
+        IntCountMap map = new IntCountMap();
+        Map<Integer, Integer> reference = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                boolean present = reference.containsKey(key);
+                assertEquals(present, map.remove(key));
+                reference.computeIfPresent(key, (k, v) -> v == 1 ? null : v - 1);
+            } else {
+                map.add(key);
+                reference.merge(key, 1, Integer::sum);
+            }
+        }
+
+        assertEquals(reference.size(), map.distinctCount());
+        reference.forEach((key, count) -> assertEquals(count.intValue(), map.get(key)));
+        map.forEach((key, count) -> assertEquals(reference.get(key).intValue(), count));
+    }
+}
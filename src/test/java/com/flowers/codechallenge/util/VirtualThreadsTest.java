@@ -0,0 +1,46 @@
+package com.flowers.codechallenge.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+class VirtualThreadsTest {
+
+    @Test
+    @DisplayName(value = "Test case to check support is detected from the running JVM")
+    void should_DetectSupport_When_RunningOnAnyJdk() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check an executor is refused without virtual threads")
+    void should_ThrowException_When_VirtualThreadsAreNotSupported() {
+        assumeTrue(!VirtualThreads.isSupported());
+
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newThreadPerTaskExecutor("test-vt-"));
+    }
+
+    @Test
+    @DisplayName(value = "Test case to check tasks run on named virtual threads")
+    void should_RunTaskOnVirtualThread_When_VirtualThreadsAreSupported() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-vt-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertAll(
+                    () -> assertEquals("test-vt-0", thread.getName()),
+                    () -> assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread))
+            );
+        } finally {
+            executor.shutdown();
+        }
+    }
+}